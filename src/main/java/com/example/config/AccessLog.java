@@ -0,0 +1,99 @@
+package com.example.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Access log written off the request thread. Requests only enqueue a small record; a single writer thread
+ * drains the queue in batches and does the formatting and appender I/O. When the queue is full, entries are
+ * dropped and counted rather than slowing requests down.
+ */
+@Component
+public class AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+    private static final int BATCH_SIZE = 256;
+
+    @Value("${access-log.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${access-log.queue-capacity:8192}")
+    private int queueCapacity = 8192;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private BlockingQueue<Entry> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        running = true;
+        writer = new Thread(this::drain, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null)
+            return;
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /** Never blocks; returns false if the entry was dropped (or logging is disabled). */
+    public boolean append(String method, String uri, int status, long nanos) {
+        if (queue == null)
+            return false;
+        if (queue.offer(new Entry(method, uri, status, nanos)))
+            return true;
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        var batch = new ArrayList<Entry>(BATCH_SIZE);
+        long reportedDrops = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Shutting down: fall through and flush whatever is left
+            }
+            queue.drainTo(batch, BATCH_SIZE - batch.size());
+            for (var entry : batch)
+                log.info("{} {} {} in {}ms", entry.method(), entry.uri(), entry.status(),
+                        String.format("%.3f", entry.nanos() / 1_000_000.0));
+            batch.clear();
+            var drops = dropped.get();
+            if (drops != reportedDrops) {
+                log.warn("Access log queue full; dropped {} entries so far", drops);
+                reportedDrops = drops;
+            }
+        }
+    }
+
+    private record Entry(String method, String uri, int status, long nanos) {
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.config;
 
+import com.example.service.GameJournal.JournalUnavailableException;
 import com.example.service.GameService.GameNotFoundException;
 import com.example.service.GameService.InvalidGameStateException;
 import com.example.service.GameService.InvalidMoveException;
 import com.example.service.GameService.PlayerNotFoundException;
+import com.example.service.PlayerService.ReservedPlayerException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -43,6 +46,25 @@ public class GlobalExceptionHandler {
         ));
     }
     
+    @ExceptionHandler(ReservedPlayerException.class)
+    public ResponseEntity<Map<String, Object>> handleForbidden(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+            "status", 403,
+            "message", ex.getMessage(),
+            "timestamp", LocalDateTime.now()
+        ));
+    }
+    
+    // Until the next snapshot brings the journal back
+    @ExceptionHandler(JournalUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnavailable(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(Map.of(
+            "status", 503,
+            "message", ex.getMessage(),
+            "timestamp", LocalDateTime.now()
+        ));
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
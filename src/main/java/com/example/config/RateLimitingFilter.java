@@ -1,9 +1,13 @@
 package com.example.config;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -13,70 +17,142 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Per-client token bucket (GCRA: each bucket is a single CAS-updated "theoretical arrival time"), allowing
+ * bursts of up to requests-per-window and refilling continuously over the window.
+ *
+ * A full bucket carries no state worth keeping, so a background sweeper drops them; the map is also capped
+ * at max-clients, and clients arriving while it is full share one overflow bucket until the sweeper frees room.
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 1)
 public class RateLimitingFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(RateLimitingFilter.class);
+
     @Value("${rate-limit.requests-per-window:100}")
     private int requestsPerWindow;
 
     @Value("${rate-limit.window-size-ms:60000}")
     private long windowSizeMs;
 
-    private final ConcurrentHashMap<String, RateLimitBucket> buckets = new ConcurrentHashMap<>();
-    private long lastCleanup = System.currentTimeMillis();
-    private static final long CLEANUP_INTERVAL_MS = 60000;
+    @Value("${rate-limit.max-clients:100000}")
+    private int maxClients;
 
-    @Override
-    protected void doFilterInternal(HttpServletRequest request,
-            HttpServletResponse response,
-            FilterChain filterChain) throws ServletException, IOException {
+    @Value("${rate-limit.cleanup-interval-ms:60000}")
+    private long cleanupIntervalMs;
 
+    private final ConcurrentHashMap<String, RateLimitBucket> buckets = new ConcurrentHashMap<>();
+    // nanoTime has an arbitrary origin; measuring from here keeps bucket times non-negative
+    private final long origin = System.nanoTime();
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+    private ScheduledExecutorService sweeper;
+    private RateLimitBucket overflow;
+    private long windowNanos;
+    private long intervalNanos;
+
+    @PostConstruct
+    void start() {
         if (requestsPerWindow <= 0)
             requestsPerWindow = 100;
         if (windowSizeMs <= 0)
             windowSizeMs = 60000;
+        if (maxClients <= 0)
+            maxClients = 100000;
+        if (cleanupIntervalMs <= 0)
+            cleanupIntervalMs = 60000;
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(windowSizeMs);
+        intervalNanos = Math.max(1, windowNanos / requestsPerWindow);
+        overflow = new RateLimitBucket(now());
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, cleanupIntervalMs, cleanupIntervalMs, TimeUnit.MILLISECONDS);
+    }
 
-        var clientIp = getClientIp(request);
-        cleanupIfNeeded();
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
 
-        var bucket = buckets.computeIfAbsent(clientIp,
-                ip -> new RateLimitBucket(windowSizeMs, requestsPerWindow));
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        var now = now();
+        var bucket = bucketFor(getClientIp(request), now);
+        var arrival = bucket.tryConsume(now, intervalNanos, windowNanos);
+        response.setHeader("X-RateLimit-Limit", String.valueOf(requestsPerWindow));
 
-        if (bucket.tryConsume()) {
-            response.setHeader("X-RateLimit-Limit", String.valueOf(requestsPerWindow));
-            response.setHeader("X-RateLimit-Remaining", String.valueOf(bucket.getRemaining()));
-            response.setHeader("X-RateLimit-Reset", String.valueOf(bucket.getResetTime()));
+        if (arrival >= 0) {
+            // Requests left in the burst allowance, and when the bucket will be full again
+            response.setHeader("X-RateLimit-Remaining", String.valueOf((windowNanos - (arrival - now)) / intervalNanos));
+            response.setHeader("X-RateLimit-Reset", String.valueOf(resetTime(arrival, now)));
             filterChain.doFilter(request, response);
         } else {
+            var tat = bucket.tat.get();
+            // The next request fits once the bucket has drained one interval below a full window
+            var waitNanos = Math.max(0, tat + intervalNanos - windowNanos - now);
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
-            response.setHeader("X-RateLimit-Limit", String.valueOf(requestsPerWindow));
             response.setHeader("X-RateLimit-Remaining", "0");
-            response.setHeader("X-RateLimit-Reset", String.valueOf(bucket.getResetTime()));
-            response.setHeader("Retry-After",
-                    String.valueOf((bucket.getResetTime() - System.currentTimeMillis()) / 1000));
+            response.setHeader("X-RateLimit-Reset", String.valueOf(resetTime(tat, now)));
+            response.setHeader("Retry-After", String.valueOf((waitNanos + 999_999_999) / 1_000_000_000));
             response.getWriter().write("{\"error\": \"Rate limit exceeded. Please try again later.\"}");
         }
     }
 
+    private RateLimitBucket bucketFor(String clientIp, long now) {
+        var bucket = buckets.get(clientIp);
+        if (bucket != null)
+            return bucket;
+        if (buckets.size() >= maxClients) {
+            // Don't let spoofed X-Forwarded-For values grow the map; reclaim idle buckets off the request path
+            if (sweepRequested.compareAndSet(false, true))
+                sweeper.execute(this::sweep);
+            return overflow;
+        }
+        return buckets.computeIfAbsent(clientIp, ip -> new RateLimitBucket(now));
+    }
+
     private String getClientIp(HttpServletRequest request) {
         var xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+            var comma = xForwardedFor.indexOf(',');
+            return (comma < 0 ? xForwardedFor : xForwardedFor.substring(0, comma)).trim();
         }
         return request.getRemoteAddr();
     }
 
-    private void cleanupIfNeeded() {
-        var now = System.currentTimeMillis();
-        if (now - lastCleanup > CLEANUP_INTERVAL_MS) {
-            lastCleanup = now;
-            buckets.entrySet().removeIf(entry -> entry.getValue().isExpired());
-        }
+    /** Drop buckets that have refilled completely; a missing bucket behaves exactly like a full one. */
+    void sweep() {
+        sweepRequested.set(false);
+        var now = now();
+        var before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        if (before >= maxClients)
+            log.warn("Rate limiter reached {} tracked clients; {} remain after sweep", before, buckets.size());
+    }
+
+    int trackedClients() {
+        return buckets.size();
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private static long resetTime(long arrival, long now) {
+        return System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(Math.max(0, arrival - now));
     }
 
     @Override
@@ -86,41 +162,27 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     }
 
     private static class RateLimitBucket {
-        private final long windowSizeMs;
-        private final int maxRequests;
-        private final AtomicInteger requestCount;
-        private final AtomicLong windowStart;
-
-        public RateLimitBucket(long windowSizeMs, int maxRequests) {
-            this.windowSizeMs = windowSizeMs;
-            this.maxRequests = maxRequests;
-            this.requestCount = new AtomicInteger(0);
-            this.windowStart = new AtomicLong(System.currentTimeMillis());
-        }
+        // Time at which the bucket will be full again; each admitted request pushes it one interval later
+        private final AtomicLong tat;
 
-        public synchronized boolean tryConsume() {
-            var now = System.currentTimeMillis();
-            if (now - windowStart.get() >= windowSizeMs) {
-                windowStart.set(now);
-                requestCount.set(0);
-            }
-            if (requestCount.get() < maxRequests) {
-                requestCount.incrementAndGet();
-                return true;
-            }
-            return false;
+        RateLimitBucket(long now) {
+            this.tat = new AtomicLong(now);
         }
 
-        public int getRemaining() {
-            return Math.max(0, maxRequests - requestCount.get());
-        }
-
-        public long getResetTime() {
-            return windowStart.get() + windowSizeMs;
+        /** Returns the new arrival time if the request is admitted, or -1 if the burst allowance is used up. */
+        long tryConsume(long now, long intervalNanos, long windowNanos) {
+            while (true) {
+                var current = tat.get();
+                var next = Math.max(current, now) + intervalNanos;
+                if (next - now > windowNanos)
+                    return -1;
+                if (tat.compareAndSet(current, next))
+                    return next;
+            }
         }
 
-        public boolean isExpired() {
-            return System.currentTimeMillis() - windowStart.get() > windowSizeMs * 2;
+        boolean isFull(long now) {
+            return tat.get() <= now;
         }
     }
 }
@@ -1,34 +1,87 @@
 package com.example.config;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
 
+/**
+ * Times every request into {@link RequestMetrics} and hands an access-log entry to {@link AccessLog}. An async
+ * request (server-sent events, streamed lists) is timed to the end of its response rather than to the handler
+ * returning, which only starts the async work.
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class RequestLoggingFilter extends OncePerRequestFilter {
 
-    private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private final RequestMetrics metrics;
+    private final AccessLog accessLog;
+
+    public RequestLoggingFilter(RequestMetrics metrics, AccessLog accessLog) {
+        this.metrics = metrics;
+        this.accessLog = accessLog;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
-        var start = System.currentTimeMillis();
+        var start = System.nanoTime();
         try {
             filterChain.doFilter(request, response);
         } finally {
-            log.info("{} {} {} in {}ms", request.getMethod(), request.getRequestURI(),
-                    response.getStatus(), System.currentTimeMillis() - start);
+            if (request.isAsyncStarted())
+                request.getAsyncContext().addListener(new Completion(request, response, start));
+            else
+                record(request, response, start);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start) {
+        var nanos = System.nanoTime() - start;
+        var route = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        metrics.record(request.getMethod(), route, response.getStatus(), nanos);
+        accessLog.append(request.getMethod(), request.getRequestURI(), response.getStatus(), nanos);
+    }
+
+    /** Records an async request once it completes; a timeout or error is followed by completion too. */
+    private final class Completion implements AsyncListener {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+
+        Completion(HttpServletRequest request, HttpServletResponse response, long start) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, response, start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async started again on the same request: keep listening to the new cycle
+            event.getAsyncContext().addListener(this);
         }
     }
 }
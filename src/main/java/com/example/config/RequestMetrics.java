@@ -0,0 +1,61 @@
+package com.example.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request latency histograms keyed by method, route pattern and status. Keying on the matched pattern
+ * ("/games/{id}") rather than the raw URI, and on the standard methods only, keeps the number of histograms bounded.
+ */
+@Component
+public class RequestMetrics {
+
+    /** Route recorded for requests no handler mapping matched, e.g. 404s and requests rejected by filters. */
+    public static final String UNMATCHED_ROUTE = "UNMATCHED";
+    /** Method recorded for requests with any method token outside the standard ones, which clients can make up. */
+    public static final String OTHER_METHOD = "OTHER";
+
+    private static final Set<String> METHODS =
+            Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE", "CONNECT");
+
+    private final ConcurrentHashMap<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public void record(String method, String route, int status, long nanos) {
+        var key = new Key(METHODS.contains(method) ? method : OTHER_METHOD, route == null ? UNMATCHED_ROUTE : route, status);
+        var histogram = histograms.get(key);
+        if (histogram == null)
+            histogram = histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+        histogram.record(nanos);
+    }
+
+    /** Percentiles for every route seen so far, ordered by route, method and status. */
+    public List<RouteLatency> latencies() {
+        var result = new ArrayList<RouteLatency>(histograms.size());
+        histograms.forEach((key, histogram) -> {
+            var snapshot = histogram.snapshot();
+            result.add(new RouteLatency(key.method(), key.route(), key.status(), snapshot.count(),
+                    millis(snapshot.valueAt(0.5)), millis(snapshot.valueAt(0.99)),
+                    millis(snapshot.valueAt(0.999)), millis(snapshot.max())));
+        });
+        result.sort(Comparator.comparing(RouteLatency::route)
+                .thenComparing(RouteLatency::method)
+                .thenComparingInt(RouteLatency::status));
+        return result;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private record Key(String method, String route, int status) {
+    }
+
+    public record RouteLatency(String method, String route, int status, long count,
+            double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.controller;
+
+import com.example.service.ComputerOpponent;
+import com.example.service.ComputerOpponent.Difficulty;
+import com.example.service.GameService.InvalidGameStateException;
+import com.example.service.GameService.PlayerNotFoundException;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Single-player games against the server: start one here, then play it through the usual move endpoint; every
+ * response already includes the computer's reply.
+ */
+@RestController
+@RequestMapping("/games/computer")
+public class ComputerGameController {
+
+    private final ComputerOpponent computerOpponent;
+
+    public ComputerGameController(ComputerOpponent computerOpponent) {
+        this.computerOpponent = computerOpponent;
+    }
+
+    /** 201 with the started game, the player being X; difficulty defaults to PERFECT. */
+    @PostMapping
+    public ResponseEntity<?> play(@Valid @RequestBody ComputerGameRequest request) {
+        try {
+            var difficulty = request.difficulty() == null ? Difficulty.PERFECT : request.difficulty();
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(computerOpponent.play(request.playerId(), difficulty));
+        } catch (PlayerNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (InvalidGameStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    record ComputerGameRequest(@NotBlank String playerId, Difficulty difficulty) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.security.SecureRandom;
+
+/**
+ * Version-based ETags for the polled read endpoints. A matching If-None-Match is answered with 304 before the
+ * response body is built, so unchanged polls never reach Jackson.
+ *
+ * The versions are counters that start over on restart, so every tag carries a random epoch of this process: a tag
+ * from before a restart never matches, even when the counter is back at the same value for a different state.
+ */
+final class ETags {
+
+    private static final String EPOCH = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    private ETags() {
+    }
+
+    /** Validator for a representation fully determined by the version. */
+    static String strong(long version) {
+        return "\"" + EPOCH + "-" + version + "\"";
+    }
+
+    /**
+     * Validator for a representation determined by the version together with embedded data versioned on its own,
+     * e.g. a game and the players (with stats) nested in it. Weak, as the two are read one after the other.
+     */
+    static String weak(long version, long embeddedVersion) {
+        return "W/\"" + EPOCH + "-" + version + "-" + embeddedVersion + "\"";
+    }
+
+    /** Whether an If-None-Match header matches the tag, using the weak comparison HTTP specifies for it. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null)
+            return false;
+        var opaque = opaque(etag);
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque))
+                return true;
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
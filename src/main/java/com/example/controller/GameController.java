@@ -1,37 +1,62 @@
 package com.example.controller;
 
 import com.example.model.Game;
+import com.example.model.GameDelta;
+import com.example.model.GameState;
 import com.example.service.GameService;
+import com.example.service.GameService.BatchOperation;
 import com.example.service.GameService.GameNotFoundException;
 import com.example.service.GameService.GameStatsResponse;
 import com.example.service.GameService.InvalidGameStateException;
 import com.example.service.GameService.InvalidMoveException;
 import com.example.service.GameService.PlayerNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/games")
 public class GameController {
 
     private final GameService gameService;
+    private final ObjectMapper objectMapper;
+    private final GameEvents gameEvents;
 
-    public GameController(GameService gameService) {
+    @Value("${game-batch.max-operations:1000}")
+    private int maxBatchOperations = 1000;
+
+    @Value("${game-batch.max-concurrent:4}")
+    private int maxConcurrentBatches = 4;
+
+    private final AtomicInteger batchesInProgress = new AtomicInteger();
+
+    public GameController(GameService gameService, ObjectMapper objectMapper, GameEvents gameEvents) {
         this.gameService = gameService;
+        this.objectMapper = objectMapper;
+        this.gameEvents = gameEvents;
     }
 
     @PostMapping
@@ -40,13 +65,73 @@ public class GameController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Game> getGame(@PathVariable String id) {
-        return gameService.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Game> getGame(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return gameService.findById(id).map(game -> conditional(game, ifNoneMatch))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** Board, player ids, status and version only, instead of the full entity with nested players. */
+    @GetMapping(value = { "/{id}", "/{id}/status" }, params = { "view=compact", "!since" })
+    public ResponseEntity<GameState> getGameState(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Read from the store's record, without building the game
+        return gameService.findState(id).map(state -> {
+            var etag = ETags.strong(state.version());
+            if (ETags.matches(ifNoneMatch, etag))
+                return ETags.<GameState>notModified(etag);
+            return ResponseEntity.ok().eTag(etag).body(state);
+        }).orElse(ResponseEntity.notFound().build());
+    }
+
+    /** Only what changed since the client's version; takes precedence over view=compact. */
+    @GetMapping(value = { "/{id}", "/{id}/status" }, params = "since")
+    public ResponseEntity<GameDelta> getGameDelta(@PathVariable String id, @RequestParam int since) {
+        try {
+            return gameService.withGame(id, game -> GameDelta.of(game, since)).map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping
-    public ResponseEntity<List<Game>> listGames() {
-        return ResponseEntity.ok(gameService.findAll());
+    public ResponseEntity<List<Game>> listGames(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null)
+            return ResponseEntity.ok(gameService.findAll());
+        if (limit != null && limit < 1)
+            return ResponseEntity.badRequest().build();
+        try {
+            var page = gameService.findAll(limit == null ? Pagination.DEFAULT_PAGE_SIZE : limit, cursor);
+            return Pagination.page(page.games(), page.nextCursor());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /** A page of compact states; with neither limit nor cursor, the first page. */
+    @GetMapping(params = { "view=compact", "!stream" })
+    public ResponseEntity<List<GameState>> listGameStates(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (limit != null && limit < 1)
+            return ResponseEntity.badRequest().build();
+        try {
+            var page = gameService.findAllStates(limit == null ? Pagination.DEFAULT_PAGE_SIZE : limit, cursor);
+            return Pagination.page(page.games(), page.nextCursor());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(params = { "stream=true", "!view" })
+    public ResponseEntity<StreamingResponseBody> streamGames() {
+        return JsonStreaming.array(objectMapper, gameService.streamAll());
+    }
+
+    @GetMapping(params = { "stream=true", "view=compact" })
+    public ResponseEntity<StreamingResponseBody> streamGameStates() {
+        return JsonStreaming.array(objectMapper, gameService.streamAllStates());
     }
 
     @GetMapping("/waiting")
@@ -55,14 +140,38 @@ public class GameController {
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<GameStatsResponse> getGameStats() {
-        return ResponseEntity.ok(gameService.getGameStats());
+    public ResponseEntity<GameStatsResponse> getGameStats(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Version first: the stats read after it may be newer than the tag, never older
+        var etag = ETags.strong(gameService.getStatsVersion());
+        if (ETags.matches(ifNoneMatch, etag))
+            return ETags.notModified(etag);
+        return ResponseEntity.ok().eTag(etag).body(gameService.getGameStats());
     }
 
     @GetMapping("/{id}/status")
-    public ResponseEntity<Game> getGameStatus(@PathVariable String id) {
+    public ResponseEntity<Game> getGameStatus(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return gameService.findById(id)
-                .map(ResponseEntity::ok)
+                .map(game -> conditional(game, ifNoneMatch))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<Game> conditional(Game game, String ifNoneMatch) {
+        // The entity embeds the players and their stats, which other games change without bumping this version
+        var players = 0L;
+        for (var player : game.getPlayers())
+            players += player.getRevision();
+        var etag = ETags.weak(game.getVersion(), players);
+        if (ETags.matches(ifNoneMatch, etag))
+            return ETags.notModified(etag);
+        return ResponseEntity.ok().eTag(etag).body(game);
+    }
+
+    /** Server-Sent Events: the current game, then a "game" event after every join and move until it ends. */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamGameEvents(@PathVariable String id) {
+        return gameEvents.subscribe(id)
+                .map(emitter -> ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -79,8 +188,20 @@ public class GameController {
 
     @PostMapping("/{id}/moves")
     public ResponseEntity<?> makeMove(@PathVariable String id, @Valid @RequestBody MakeMoveRequest request) {
+        return move(id, request, game -> game);
+    }
+
+    @PostMapping(value = "/{id}/moves", params = "view=compact")
+    public ResponseEntity<?> makeMoveCompact(@PathVariable String id, @Valid @RequestBody MakeMoveRequest request) {
+        // Read back under the lock so the view is consistent; a concurrent delete falls through to 404
+        return move(id, request, game -> gameService.findState(id)
+                .orElseThrow(() -> new GameNotFoundException("Game not found")));
+    }
+
+    private ResponseEntity<?> move(String id, MakeMoveRequest request, Function<Game, ?> view) {
         try {
-            return ResponseEntity.ok(gameService.makeMove(id, request.playerId(), request.row(), request.col()));
+            return ResponseEntity.ok(view.apply(
+                    gameService.makeMove(id, request.playerId(), request.row(), request.col())));
         } catch (GameNotFoundException | PlayerNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
         } catch (InvalidGameStateException | InvalidMoveException e) {
@@ -88,6 +209,27 @@ public class GameController {
         }
     }
 
+    /**
+     * Many joins and moves, across games, in one request (and one rate-limit token): 200 with a result per
+     * operation, in order; 400 when the batch is empty or above the size limit; 503 while max-concurrent batches
+     * are in progress, since one token buys up to max-operations of work.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(@Valid @RequestBody BatchRequest request) {
+        var operations = request.operations();
+        if (operations == null || operations.isEmpty() || operations.size() > maxBatchOperations)
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "A batch holds 1 to " + maxBatchOperations + " operations"));
+        try {
+            if (batchesInProgress.incrementAndGet() > maxConcurrentBatches)
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(Map.of("error", "Too many batches in progress"));
+            return ResponseEntity.ok(gameService.applyBatch(operations));
+        } finally {
+            batchesInProgress.decrementAndGet();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteGame(@PathVariable String id) {
         return gameService.deleteGame(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
@@ -99,6 +241,9 @@ public class GameController {
     record JoinGameRequest(@NotBlank String playerId) {
     }
 
+    record BatchRequest(List<BatchOperation> operations) {
+    }
+
     record MakeMoveRequest(@NotBlank String playerId, @Min(0) @Max(2) int row, @Min(0) @Max(2) int col) {
     }
 }
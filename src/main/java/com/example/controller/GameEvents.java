@@ -0,0 +1,325 @@
+package com.example.controller;
+
+import com.example.model.Game;
+import com.example.model.Game.GameStatus;
+import com.example.model.GameState;
+import com.example.service.GameService;
+import com.example.service.GameService.Change;
+import com.example.service.GameService.GameListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes game state to subscribers as Server-Sent Events. A change is serialized once, as a {@link GameState} under
+ * the game's lock so the frame is a consistent snapshot, and the same frame bytes are queued for every subscriber of
+ * that game.
+ * Nothing is serialized for games nobody subscribes to. Each subscriber has its own short queue, written in order by
+ * one dispatcher thread at a time, so a slow client never holds up a move or another client's events. A client that
+ * falls max-pending frames behind is dropped: its stream is completed, and EventSource clients reconnect and get the
+ * current state.
+ *
+ * A write still blocked after write-timeout-ms (a client that stopped reading with a full socket buffer) is given up
+ * on by a watchdog: the subscriber is dropped, the writing thread is interrupted, and the dispatcher gets a
+ * replacement thread until that write returns, so stalled clients never take the threads healthy ones need.
+ */
+@Component
+public class GameEvents implements GameListener {
+
+    private static final Logger log = LoggerFactory.getLogger(GameEvents.class);
+    private static final int DISPATCH_THREADS = 8;
+    private static final byte[] FRAME_START = "event: game\ndata: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FRAME_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+
+    @Value("${game-events.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000;
+
+    @Value("${game-events.max-pending:32}")
+    private int maxPending = 32;
+
+    @Value("${game-events.write-timeout-ms:10000}")
+    private long writeTimeoutMs = 10_000;
+
+    private final ObjectMapper objectMapper;
+    private final GameService gameService;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor dispatcher;
+    // Subscribers with a write in progress, checked by the watchdog
+    private final Set<Subscriber> writing = ConcurrentHashMap.newKeySet();
+    private int abandonedWriters;
+    private ScheduledExecutorService watchdog;
+
+    public GameEvents(GameService gameService, ObjectMapper objectMapper) {
+        this.gameService = gameService;
+        this.objectMapper = objectMapper;
+        var count = new AtomicInteger();
+        dispatcher = new ThreadPoolExecutor(DISPATCH_THREADS, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    var thread = new Thread(runnable, "game-events-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        gameService.addListener(this);
+    }
+
+    @PostConstruct
+    void start() {
+        if (writeTimeoutMs <= 0)
+            writeTimeoutMs = 10_000;
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "game-events-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var interval = Math.max(1, writeTimeoutMs / 4);
+        watchdog.scheduleWithFixedDelay(this::expireWrites, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (watchdog != null)
+            watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Subscribe to a game: the current state is sent first, then one event per change. The stream completes once
+     * the game is over or deleted. Empty if there is no such game.
+     */
+    public Optional<ResponseBodyEmitter> subscribe(String gameId) {
+        return subscribe(gameId, new ResponseBodyEmitter(timeoutMs));
+    }
+
+    Optional<ResponseBodyEmitter> subscribe(String gameId, ResponseBodyEmitter emitter) {
+        var subscriber = new Subscriber(gameId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return gameService.withGame(gameId, game -> {
+            var frame = frame(game);
+            var finished = isFinished(game);
+            if (!finished) {
+                subscribers.compute(gameId, (id, current) -> {
+                    var result = current != null ? current : ConcurrentHashMap.<Subscriber>newKeySet();
+                    result.add(subscriber);
+                    return result;
+                });
+            }
+            subscriber.offer(frame, finished);
+            return emitter;
+        });
+    }
+
+    @Override
+    public void gameChanged(Game game, Change change) {
+        var targets = subscribers.get(game.getId());
+        if (targets == null)
+            return;
+        var finished = isFinished(game);
+        if (finished)
+            subscribers.remove(game.getId());
+        var frame = frame(game);
+        for (var subscriber : targets)
+            subscriber.offer(frame, finished);
+    }
+
+    @Override
+    public void gameDeleted(String gameId) {
+        var targets = subscribers.remove(gameId);
+        if (targets != null) {
+            for (var subscriber : targets)
+                subscriber.offer(null, true);
+        }
+    }
+
+    int subscriberCount(String gameId) {
+        var current = subscribers.get(gameId);
+        return current == null ? 0 : current.size();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.gameId, (id, current) -> {
+            current.remove(subscriber);
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    private void expireWrites() {
+        var deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        for (var subscriber : writing)
+            subscriber.expire(deadline);
+    }
+
+    /** A dispatcher thread is stuck in a write given up on: add one to stand in for it until it returns. */
+    private synchronized void writerAbandoned() {
+        dispatcher.setCorePoolSize(DISPATCH_THREADS + ++abandonedWriters);
+    }
+
+    private synchronized void writerReturned() {
+        dispatcher.setCorePoolSize(DISPATCH_THREADS + --abandonedWriters);
+    }
+
+    private byte[] frame(Game game) {
+        var out = new ByteArrayOutputStream(256);
+        out.writeBytes(FRAME_START);
+        try {
+            out.writeBytes(objectMapper.writeValueAsBytes(GameState.of(game)));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize game {} for subscribers", game.getId(), e);
+            return null;
+        }
+        out.writeBytes(FRAME_END);
+        return out.toByteArray();
+    }
+
+    private static boolean isFinished(Game game) {
+        return game.getStatus() == GameStatus.COMPLETED || game.getStatus() == GameStatus.DRAW;
+    }
+
+    /**
+     * One stream's frames not yet written. Frames are queued under the game's lock, so they are in order, and
+     * written by at most one dispatcher thread at a time, which keeps them in order on the wire.
+     */
+    private final class Subscriber {
+        final String gameId;
+        final ResponseBodyEmitter emitter;
+        final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendingCount = new AtomicInteger();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // Set by the game's threads: complete after the pending frames, or right away
+        volatile boolean last;
+        volatile boolean dropped;
+        // Set by the draining thread once the stream is over, or by the watchdog
+        volatile boolean done;
+        // The thread in emitter.send and when it started; guarded by this
+        private Thread writer;
+        private long writeStarted;
+        private boolean abandoned;
+
+        Subscriber(String gameId, ResponseBodyEmitter emitter) {
+            this.gameId = gameId;
+            this.emitter = emitter;
+        }
+
+        /** Queue a frame (if any) and, with {@code end}, the end of the stream after it; never blocks. */
+        void offer(byte[] frame, boolean end) {
+            if (dropped)
+                return;
+            if (frame != null) {
+                if (pendingCount.incrementAndGet() > maxPending) {
+                    dropped = true;
+                    pending.clear();
+                    unsubscribe(this);
+                    log.debug("Dropped a subscriber of game {} that fell {} events behind", gameId, maxPending);
+                } else {
+                    pending.add(frame);
+                }
+            }
+            if (end)
+                last = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true))
+                return;
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+
+        private void drain() {
+            try {
+                byte[] frame;
+                while (!done && !dropped && (frame = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    write(frame);
+                }
+                if (!done && (dropped || last)) {
+                    done = true;
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                // Client went away or the emitter already timed out
+                done = true;
+                unsubscribe(this);
+            } finally {
+                scheduled.set(false);
+            }
+            // A frame or the end may have arrived after the last look but before scheduled was cleared
+            if (!done && (!pending.isEmpty() || last || dropped))
+                schedule();
+        }
+
+        private void write(byte[] frame) throws IOException {
+            synchronized (this) {
+                writer = Thread.currentThread();
+                writeStarted = System.nanoTime();
+            }
+            writing.add(this);
+            var timedOut = false;
+            try {
+                emitter.send(frame, MediaType.TEXT_EVENT_STREAM);
+            } finally {
+                writing.remove(this);
+                synchronized (this) {
+                    writer = null;
+                    if (abandoned) {
+                        // The watchdog interrupted this thread while holding the lock; don't carry that on
+                        Thread.interrupted();
+                        writerReturned();
+                        timedOut = true;
+                    }
+                }
+            }
+            if (timedOut) {
+                emitter.completeWithError(new IOException("Write timed out"));
+                throw new IOException("Write timed out");
+            }
+        }
+
+        /** Give up on the write in progress if it started before {@code deadline} (a System.nanoTime value). */
+        void expire(long deadline) {
+            synchronized (this) {
+                if (writer == null || abandoned || writeStarted - deadline > 0)
+                    return;
+                abandoned = true;
+                done = true;
+                dropped = true;
+                writer.interrupt();
+                writerAbandoned();
+            }
+            writing.remove(this);
+            pending.clear();
+            unsubscribe(this);
+            log.debug("Dropped a subscriber of game {} whose write took over {} ms", gameId, writeTimeoutMs);
+        }
+    }
+}
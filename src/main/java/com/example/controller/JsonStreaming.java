@@ -0,0 +1,31 @@
+package com.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.stream.Stream;
+
+/** Writes a JSON array element by element to the response, so large lists are never held on the heap. */
+final class JsonStreaming {
+
+    private JsonStreaming() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> array(ObjectMapper mapper, Stream<?> items) {
+        // Let the generator's buffer decide when to flush instead of flushing after every element
+        var writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (var generator = mapper.getFactory().createGenerator(out); items) {
+                generator.writeStartArray();
+                for (var iterator = items.iterator(); iterator.hasNext();) {
+                    writer.writeValue(generator, iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.controller;
+
+import com.example.service.GameService.InvalidGameStateException;
+import com.example.service.GameService.PlayerNotFoundException;
+import com.example.service.Matchmaker;
+import com.example.service.Matchmaker.MatchStatus;
+import com.example.service.Matchmaker.MatchTicket;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/** Automatic matchmaking: ask for a match, then poll the ticket until it carries the game id. */
+@RestController
+@RequestMapping("/games/matchmaking")
+public class MatchmakingController {
+
+    private final Matchmaker matchmaker;
+
+    public MatchmakingController(Matchmaker matchmaker) {
+        this.matchmaker = matchmaker;
+    }
+
+    /** 200 with the game id when matched right away, 202 with a ticket to poll otherwise. */
+    @PostMapping
+    public ResponseEntity<?> match(@Valid @RequestBody MatchRequest request) {
+        try {
+            var ticket = matchmaker.match(request.playerId());
+            return ResponseEntity.status(ticket.status() == MatchStatus.MATCHED ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                    .body(ticket);
+        } catch (PlayerNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (InvalidGameStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{ticketId}")
+    public ResponseEntity<MatchTicket> getTicket(@PathVariable String ticketId) {
+        return matchmaker.findTicket(ticketId).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    /** 200 once cancelled; 409 when the ticket was already matched or expired. */
+    @DeleteMapping("/{ticketId}")
+    public ResponseEntity<MatchTicket> cancel(@PathVariable String ticketId) {
+        return matchmaker.cancel(ticketId)
+                .map(ticket -> ResponseEntity.status(ticket.status() == MatchStatus.CANCELLED ? HttpStatus.OK
+                        : HttpStatus.CONFLICT).body(ticket))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    record MatchRequest(@NotBlank String playerId) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.controller;
+
+import com.example.config.AccessLog;
+import com.example.config.RequestMetrics;
+import com.example.config.RequestMetrics.RouteLatency;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    private final RequestMetrics requestMetrics;
+    private final AccessLog accessLog;
+
+    public MetricsController(RequestMetrics requestMetrics, AccessLog accessLog) {
+        this.requestMetrics = requestMetrics;
+        this.accessLog = accessLog;
+    }
+
+    /** p50/p99/p999/max latency per method, route pattern and status since startup. */
+    @GetMapping("/latency")
+    public ResponseEntity<List<RouteLatency>> getLatency() {
+        return ResponseEntity.ok(requestMetrics.latencies());
+    }
+
+    @GetMapping("/access-log")
+    public ResponseEntity<Map<String, Long>> getAccessLogStats() {
+        return ResponseEntity.ok(Map.of("dropped", accessLog.droppedCount()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/** Cursor paging conventions shared by the list endpoints. */
+final class Pagination {
+
+    /** Response header carrying the cursor of the next page; absent on the last page. */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    private Pagination() {
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> items, String nextCursor) {
+        var response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
@@ -2,7 +2,11 @@ package com.example.controller;
 
 import com.example.model.Player;
 import com.example.model.PlayerStats;
+import com.example.service.PlayerImporter;
 import com.example.service.PlayerService;
+import com.example.service.PlayerService.PlayerPage;
+import com.example.service.PlayerWriteBehind;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -10,7 +14,11 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,27 +26,46 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/players")
 public class PlayerController {
 
     private final PlayerService playerService;
+    private final ObjectMapper objectMapper;
+    private final PlayerImporter playerImporter;
+    private final PlayerWriteBehind writeBehind;
 
     @Autowired
-    public PlayerController(PlayerService playerService) {
+    public PlayerController(PlayerService playerService, ObjectMapper objectMapper, PlayerImporter playerImporter,
+            PlayerWriteBehind writeBehind) {
         this.playerService = playerService;
+        this.objectMapper = objectMapper;
+        this.playerImporter = playerImporter;
+        this.writeBehind = writeBehind;
     }
 
     // Create a new player
     @PostMapping
     public ResponseEntity<Player> createPlayer(@Valid @RequestBody CreatePlayerRequest request) {
+        if (!writeBehind.hasRoom()) {
+            return backlogged();
+        }
         try {
             var player = playerService.createPlayer(request.getName(), request.getEmail());
             return ResponseEntity.status(HttpStatus.CREATED).body(player);
@@ -55,12 +82,84 @@ public class PlayerController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // Get all players
+    // Get all players, optionally searching by name or creation time [createdFrom, createdTo);
+    // limit, cursor or prefix switch to paged results
     @GetMapping
     public ResponseEntity<List<Player>> getAllPlayers(
-            @RequestParam(required = false) String name) {
-        var players = playerService.searchByName(name);
-        return ResponseEntity.ok(players);
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        var byCreation = createdFrom != null || createdTo != null;
+        var byName = name != null && !name.isBlank();
+        var paged = prefix || limit != null || cursor != null;
+        if (!byCreation && !paged) {
+            var players = playerService.searchByName(name);
+            return ResponseEntity.ok(players);
+        }
+        if (limit != null && limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        var pageSize = limit == null ? Pagination.DEFAULT_PAGE_SIZE : limit;
+        try {
+            PlayerPage page;
+            if (byCreation) {
+                page = playerService.getPlayersCreatedBetween(createdFrom, createdTo, pageSize, cursor);
+            } else if (byName) {
+                page = playerService.searchByName(name, prefix, pageSize, cursor);
+            } else {
+                page = playerService.findAll(pageSize, cursor);
+            }
+            return Pagination.page(page.players(), page.nextCursor());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Stream all players as one JSON array, written incrementally, with the same name and creation-time filters;
+    // paging does not apply to a stream
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllPlayers(
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (limit != null || cursor != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return JsonStreaming.array(objectMapper, playerService.stream(name, prefix, createdFrom, createdTo));
+    }
+
+    // Bulk import of NDJSON or CSV (by content type), read as it arrives; reports imported, invalid and duplicate
+    // records, with the first errors by line
+    @PostMapping(value = "/import", consumes = { PlayerTransfer.NDJSON, PlayerTransfer.CSV })
+    public ResponseEntity<?> importPlayers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException, InterruptedException {
+        var in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            var type = MediaType.parseMediaType(contentType);
+            var records = type.isCompatibleWith(MediaType.parseMediaType(PlayerTransfer.CSV)) ? PlayerTransfer.csv(in)
+                    : PlayerTransfer.ndjson(objectMapper, in);
+            return ResponseEntity.ok(playerImporter.importAll(records));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Bulk export of every player with stats, as NDJSON (default) or CSV, written as it is read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPlayers(@RequestParam(defaultValue = "ndjson") String format) {
+        return switch (format) {
+            case "ndjson" -> ResponseEntity.ok().contentType(MediaType.parseMediaType(PlayerTransfer.NDJSON))
+                    .body(PlayerTransfer.exportNdjson(objectMapper, playerService.streamAll()));
+            case "csv" -> ResponseEntity.ok().contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .body(PlayerTransfer.exportCsv(playerService.streamAll()));
+            default -> ResponseEntity.badRequest().build();
+        };
     }
 
     // Update player
@@ -68,6 +167,9 @@ public class PlayerController {
     public ResponseEntity<Player> updatePlayer(
             @PathVariable String id,
             @Valid @RequestBody UpdatePlayerRequest request) {
+        if (!writeBehind.hasRoom()) {
+            return backlogged();
+        }
         try {
             var player = playerService.updatePlayer(id, request.getName(), request.getEmail());
             return ResponseEntity.ok(player);
@@ -79,6 +181,9 @@ public class PlayerController {
     // Delete player
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePlayer(@PathVariable String id) {
+        if (!writeBehind.hasRoom()) {
+            return backlogged();
+        }
         boolean deleted = playerService.deletePlayer(id);
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
@@ -97,25 +202,39 @@ public class PlayerController {
     // Get leaderboard
     @GetMapping("/leaderboard")
     public ResponseEntity<List<Player>> getLeaderboard(
-            @RequestParam(defaultValue = "10") int limit) {
-        var leaderboard = playerService.getLeaderboard(limit);
-        return ResponseEntity.ok(leaderboard);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ranking(ifNoneMatch, () -> playerService.getLeaderboard(limit));
     }
 
     // Get most active players
     @GetMapping("/most-active")
     public ResponseEntity<List<Player>> getMostActivePlayers(
-            @RequestParam(defaultValue = "10") int limit) {
-        var players = playerService.getMostActivePlayers(limit);
-        return ResponseEntity.ok(players);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ranking(ifNoneMatch, () -> playerService.getMostActivePlayers(limit));
     }
 
     // Get most efficient players
     @GetMapping("/most-efficient")
     public ResponseEntity<List<Player>> getMostEfficientPlayers(
-            @RequestParam(defaultValue = "10") int limit) {
-        var players = playerService.getMostEfficientPlayers(limit);
-        return ResponseEntity.ok(players);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ranking(ifNoneMatch, () -> playerService.getMostEfficientPlayers(limit));
+    }
+
+    // Player writes are refused while the database is too far behind, rather than making game moves wait for it
+    private static <T> ResponseEntity<T> backlogged() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    // Rankings are versioned by the aggregate player version, read before the ranking so the tag is never newer
+    private ResponseEntity<List<Player>> ranking(String ifNoneMatch, Supplier<List<Player>> players) {
+        var etag = ETags.strong(playerService.getVersion());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(players.get());
     }
 
     // Get player count
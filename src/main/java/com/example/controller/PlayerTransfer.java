@@ -0,0 +1,260 @@
+package com.example.controller;
+
+import com.example.model.Player;
+import com.example.model.PlayerStats;
+import com.example.service.PlayerImporter.PlayerRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Player import and export formats: newline-delimited JSON, one object per line, and CSV with a header line. Input
+ * is read one line at a time and output written one player at a time, so neither side is ever held whole.
+ */
+final class PlayerTransfer {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    private static final String CSV_HEADER =
+            "id,name,email,createdAt,updatedAt,gamesPlayed,gamesWon,gamesLost,gamesDrawn,totalMoves";
+    private static final List<String> STATS_FIELDS =
+            List.of("gamesPlayed", "gamesWon", "gamesLost", "gamesDrawn", "totalMoves");
+
+    private PlayerTransfer() {
+    }
+
+    /**
+     * Records from NDJSON lines of at least {@code name} and {@code email}, and optionally the {@code id},
+     * {@code createdAt} and {@code stats} of an exported player; other fields are ignored.
+     */
+    static Iterator<PlayerRecord> ndjson(ObjectMapper mapper, BufferedReader in) {
+        return new LineRecords(in) {
+            @Override
+            PlayerRecord parse(long line, String text) {
+                JsonNode node;
+                try {
+                    node = mapper.readTree(text);
+                } catch (JsonProcessingException e) {
+                    return PlayerRecord.unreadable(line, "Malformed JSON");
+                }
+                var stats = node.get("stats");
+                var counts = new String[STATS_FIELDS.size()];
+                for (int i = 0; i < counts.length; i++) {
+                    var count = stats == null ? null : stats.get(STATS_FIELDS.get(i));
+                    counts[i] = count == null || count.isNull() ? null : count.asText();
+                }
+                return record(line, text(node.get("id")), text(node.get("name")), text(node.get("email")),
+                        text(node.get("createdAt")), counts);
+            }
+        };
+    }
+
+    /**
+     * Records from CSV lines with {@code name} and {@code email} columns, and optionally the {@code id},
+     * {@code createdAt} and stats columns of an export, located by the header line (so exported files import as
+     * they are). Fields may be quoted, with doubled quotes inside; quoted line breaks are not supported.
+     */
+    static Iterator<PlayerRecord> csv(BufferedReader in) throws IOException {
+        var header = in.readLine();
+        var parsed = header == null ? null : fields(header.strip());
+        var columns = parsed == null ? List.<String>of() : parsed;
+        var name = columns.indexOf("name");
+        var email = columns.indexOf("email");
+        if (name < 0 || email < 0)
+            throw new IllegalArgumentException("CSV header must name the name and email columns");
+        var id = columns.indexOf("id");
+        var createdAt = columns.indexOf("createdAt");
+        var stats = STATS_FIELDS.stream().mapToInt(columns::indexOf).toArray();
+        return new LineRecords(in, 1) {
+            @Override
+            PlayerRecord parse(long line, String text) {
+                var values = fields(text);
+                if (values == null || values.size() != columns.size())
+                    return PlayerRecord.unreadable(line, "Expected " + columns.size() + " fields");
+                var counts = new String[stats.length];
+                for (int i = 0; i < counts.length; i++)
+                    counts[i] = stats[i] < 0 ? null : values.get(stats[i]);
+                return record(line, id < 0 ? null : values.get(id), values.get(name), values.get(email),
+                        createdAt < 0 ? null : values.get(createdAt), counts);
+            }
+        };
+    }
+
+    /** The record, with blank optional fields taken as not given; unreadable if the time or a count is not. */
+    private static PlayerRecord record(long line, String id, String name, String email, String createdAt,
+            String[] counts) {
+        try {
+            return PlayerRecord.of(line, blankToNull(id), name, email,
+                    createdAt == null || createdAt.isBlank() ? null : LocalDateTime.parse(createdAt.strip()),
+                    stats(counts));
+        } catch (DateTimeException e) {
+            return PlayerRecord.unreadable(line, "Invalid createdAt: " + createdAt);
+        } catch (IllegalArgumentException e) {
+            return PlayerRecord.unreadable(line, "Stats must be non-negative whole numbers");
+        }
+    }
+
+    /** Stats from the counts in {@link #STATS_FIELDS} order, or null when none is given. */
+    private static PlayerStats stats(String[] counts) {
+        var given = false;
+        var values = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            var count = blankToNull(counts[i]);
+            if (count != null) {
+                given = true;
+                values[i] = Integer.parseInt(count.strip());
+                if (values[i] < 0)
+                    throw new IllegalArgumentException("Negative count");
+            }
+        }
+        if (!given)
+            return null;
+        var stats = new PlayerStats();
+        stats.setGamesPlayed(values[0]);
+        stats.setGamesWon(values[1]);
+        stats.setGamesLost(values[2]);
+        stats.setGamesDrawn(values[3]);
+        stats.setTotalMoves(values[4]);
+        return stats;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /** Every player with its stats as one JSON object per line. */
+    static StreamingResponseBody exportNdjson(ObjectMapper mapper, Stream<Player> players) {
+        var writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (var generator = mapper.getFactory().createGenerator(out); players) {
+                generator.setRootValueSeparator(null);
+                for (var iterator = players.iterator(); iterator.hasNext();) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+    }
+
+    /** Every player with its stats as one CSV row, after a header row. */
+    static StreamingResponseBody exportCsv(Stream<Player> players) {
+        return out -> {
+            try (var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)); players) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                for (var iterator = players.iterator(); iterator.hasNext();) {
+                    var player = iterator.next();
+                    var stats = player.getStats();
+                    writer.write(String.join(",", quote(player.getId()), quote(player.getName()),
+                            quote(player.getEmail()), String.valueOf(player.getCreatedAt()),
+                            String.valueOf(player.getUpdatedAt()), String.valueOf(stats.getGamesPlayed()),
+                            String.valueOf(stats.getGamesWon()), String.valueOf(stats.getGamesLost()),
+                            String.valueOf(stats.getGamesDrawn()), String.valueOf(stats.getTotalMoves())));
+                    writer.write('\n');
+                }
+            }
+        };
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || !node.isTextual() ? null : node.asText();
+    }
+
+    private static String quote(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /** The fields of one CSV line, or null when a quote is left open. */
+    private static List<String> fields(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c != '"')
+                    field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    field.append(line.charAt(++i));
+                else
+                    quoted = false;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted)
+            return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Parses the reader lazily, one non-blank line per record. */
+    private abstract static class LineRecords implements Iterator<PlayerRecord> {
+        private final BufferedReader in;
+        private long line;
+        private String next;
+
+        LineRecords(BufferedReader in) {
+            this(in, 0);
+        }
+
+        LineRecords(BufferedReader in, long linesRead) {
+            this.in = in;
+            this.line = linesRead;
+        }
+
+        abstract PlayerRecord parse(long line, String text);
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    var text = in.readLine();
+                    if (text == null)
+                        return false;
+                    line++;
+                    if (!text.isBlank())
+                        next = text;
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public PlayerRecord next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            var text = next;
+            next = null;
+            return parse(line, text);
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import jakarta.persistence.CollectionTable;
-import jakarta.persistence.ElementCollection;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -12,13 +12,18 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Entity
 @Table(name = "games")
@@ -26,35 +31,72 @@ import java.util.UUID;
 @Setter
 public class Game {
 
+    /** Bit mask with all nine cells set; bit {@code i} is board position {@code i} (row * 3 + col). */
+    public static final int FULL_BOARD = 0b111_111_111;
+
+    /** The eight winning lines as cell masks: three rows, three columns, two diagonals. */
+    static final int[] WIN_LINES = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000,
+            0b001_001_001, 0b010_010_010, 0b100_100_100,
+            0b100_010_001, 0b001_010_100
+    };
+
+    /** For each cell, the win lines passing through it, so a move only checks 2-4 lines. */
+    private static final int[][] LINES_THROUGH = new int[9][];
+
+    static {
+        for (int cell = 0; cell < 9; cell++) {
+            var bit = 1 << cell;
+            LINES_THROUGH[cell] = Arrays.stream(WIN_LINES).filter(line -> (line & bit) != 0).toArray();
+        }
+    }
+
     @Id
     private String id;
 
     private String name;
 
+    // Mutable state is volatile: GameService mutates under a per-game lock, readers do not lock
     @Enumerated(EnumType.STRING)
-    private GameStatus status = GameStatus.WAITING;
+    private volatile GameStatus status = GameStatus.WAITING;
+
+    // Bitboard: one 9-bit mask per symbol
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile int xMask;
 
-    @ElementCollection
-    @CollectionTable(name = "game_board", joinColumns = @JoinColumn(name = "game_id"))
-    private List<String> board = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile int oMask;
 
     @ManyToMany
     @JoinTable(name = "game_players", joinColumns = @JoinColumn(name = "game_id"), inverseJoinColumns = @JoinColumn(name = "player_id"))
-    private List<Player> players = new ArrayList<>();
+    private List<Player> players = new CopyOnWriteArrayList<>();
 
     @ManyToOne
-    private Player currentPlayer;
+    private volatile Player currentPlayer;
 
     @ManyToOne
-    private Player winner;
+    private volatile Player winner;
+
+    private volatile int moveCount = 0;
 
-    private int moveCount = 0;
+    // Bumped by every join and move; the two joins are versions 1 and 2, so move i (from 0) is version i + 3
+    private volatile int version = 0;
+
+    // Cell of each move in play order, four bits per move, so deltas can tell which cells a version added
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile long moveOrder;
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime createdAt;
 
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime updatedAt;
+    // Epoch millis so the move path does not allocate; exposed as LocalDateTime via getUpdatedAt()
+    @JsonIgnore
+    @Column(name = "updated_at")
+    private volatile long updatedAtMillis;
 
     public enum GameStatus {
         WAITING, ACTIVE, COMPLETED, DRAW
@@ -63,9 +105,7 @@ public class Game {
     public Game() {
         this.id = UUID.randomUUID().toString();
         this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
-        for (int i = 0; i < 9; i++)
-            board.add(null);
+        this.updatedAtMillis = System.currentTimeMillis();
     }
 
     public Game(String name) {
@@ -73,6 +113,14 @@ public class Game {
         this.name = name;
     }
 
+    /** A game whose identity is already known, e.g. one being restored. */
+    public Game(String id, String name, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.createdAt = createdAt;
+        this.updatedAtMillis = System.currentTimeMillis();
+    }
+
     public boolean addPlayer(Player player) {
         if (players.size() >= 2 || players.contains(player))
             return false;
@@ -81,57 +129,122 @@ public class Game {
             status = GameStatus.ACTIVE;
             currentPlayer = players.get(0);
         }
+        version++;
+        updatedAtMillis = System.currentTimeMillis();
         return true;
     }
 
     public boolean makeMove(Player player, int position) {
-        if (status != GameStatus.ACTIVE || !player.equals(currentPlayer))
+        if (!player.equals(currentPlayer))
+            return false;
+        return place(position, true);
+    }
+
+    /** Re-apply a recorded move for whoever's turn it is, leaving player stats alone since they are persisted. */
+    public boolean replayMove(int position) {
+        return place(position, false);
+    }
+
+    private boolean place(int position, boolean updateStats) {
+        if (status != GameStatus.ACTIVE)
             return false;
-        if (position < 0 || position >= 9 || board.get(position) != null)
+        if (position < 0 || position >= 9 || isOccupied(position))
             return false;
 
-        var symbol = players.indexOf(player) == 0 ? "X" : "O";
-        board.set(position, symbol);
+        var player = currentPlayer;
+        var isX = player.equals(players.get(0));
+        var opponent = players.get(isX ? 1 : 0);
+        var bit = 1 << position;
+        int mask;
+        if (isX)
+            xMask = mask = xMask | bit;
+        else
+            oMask = mask = oMask | bit;
+        moveOrder |= (long) position << (4 * moveCount);
         moveCount++;
-        player.getStats().addMoves(1);
+        if (updateStats)
+            player.getStats().addMoves(1);
 
-        if (checkWin(symbol)) {
+        if (checkWin(mask, position)) {
             status = GameStatus.COMPLETED;
             winner = player;
-            player.getStats().incrementGamesWon();
-            player.getStats().incrementGamesPlayed();
-            players.stream().filter(p -> !p.equals(player)).findFirst()
-                    .ifPresent(p -> {
-                        p.getStats().incrementGamesLost();
-                        p.getStats().incrementGamesPlayed();
-                    });
-        } else if (board.stream().allMatch(c -> c != null)) {
+            if (updateStats) {
+                player.getStats().incrementGamesWon();
+                player.getStats().incrementGamesPlayed();
+                opponent.getStats().incrementGamesLost();
+                opponent.getStats().incrementGamesPlayed();
+            }
+        } else if ((xMask | oMask) == FULL_BOARD) {
             status = GameStatus.DRAW;
-            players.forEach(p -> {
-                p.getStats().incrementGamesDrawn();
-                p.getStats().incrementGamesPlayed();
-            });
+            if (updateStats) {
+                player.getStats().incrementGamesDrawn();
+                player.getStats().incrementGamesPlayed();
+                opponent.getStats().incrementGamesDrawn();
+                opponent.getStats().incrementGamesPlayed();
+            }
         } else {
-            currentPlayer = players.get((players.indexOf(currentPlayer) + 1) % 2);
+            currentPlayer = opponent;
         }
-        updatedAt = LocalDateTime.now();
+        version++;
+        updatedAtMillis = System.currentTimeMillis();
         return true;
     }
 
-    private boolean checkWin(String s) {
-        // Rows
-        for (int i = 0; i < 9; i += 3)
-            if (s.equals(board.get(i)) && s.equals(board.get(i + 1)) && s.equals(board.get(i + 2)))
-                return true;
-        // Columns
-        for (int i = 0; i < 3; i++)
-            if (s.equals(board.get(i)) && s.equals(board.get(i + 3)) && s.equals(board.get(i + 6)))
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    public LocalDateTime getUpdatedAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(updatedAtMillis), ZoneId.systemDefault());
+    }
+
+    @JsonIgnore
+    public int getXMask() {
+        return xMask;
+    }
+
+    @JsonIgnore
+    public int getOMask() {
+        return oMask;
+    }
+
+    /** Mask of the cells filled by moves made after {@code version}. */
+    public int cellsChangedSince(int version) {
+        var mask = 0;
+        var order = moveOrder;
+        for (int i = Math.max(0, version - 2); i < moveCount; i++)
+            mask |= 1 << (int) (order >>> (4 * i) & 0xF);
+        return mask;
+    }
+
+    /** Cell played by the move with the given index (0 for the first move). */
+    public int positionOfMove(int index) {
+        return (int) (moveOrder >>> (4 * index) & 0xF);
+    }
+
+    public boolean isOccupied(int position) {
+        return ((xMask | oMask) & (1 << position)) != 0;
+    }
+
+    /** Symbol at the given position: "X", "O" or null when empty. */
+    public String getCell(int position) {
+        var bit = 1 << position;
+        if ((xMask & bit) != 0)
+            return "X";
+        if ((oMask & bit) != 0)
+            return "O";
+        return null;
+    }
+
+    /** Board in its JSON shape (nine cells of "X", "O" or null), derived from the masks. */
+    public List<String> getBoard() {
+        var board = new ArrayList<String>(9);
+        for (int i = 0; i < 9; i++)
+            board.add(getCell(i));
+        return board;
+    }
+
+    private static boolean checkWin(int mask, int position) {
+        for (var line : LINES_THROUGH[position])
+            if ((mask & line) == line)
                 return true;
-        // Diagonals
-        if (s.equals(board.get(0)) && s.equals(board.get(4)) && s.equals(board.get(8)))
-            return true;
-        if (s.equals(board.get(2)) && s.equals(board.get(4)) && s.equals(board.get(6)))
-            return true;
         return false;
     }
 }
@@ -0,0 +1,25 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * What changed in a game since a client-supplied version. {@code changes} has the {@link GameState} board layout
+ * with only the cells filled since then set; cells never empty again, so a client applies it by copying every
+ * non-'-' cell. Player ids are only included when someone joined since.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GameDelta(String id, int since, int version, Game.GameStatus status, String changes,
+        String xPlayerId, String oPlayerId, String currentPlayerId, String winnerId) {
+
+    /** Changes since {@code since}; callers hold the game's lock so the fields agree with each other. */
+    public static GameDelta of(Game game, int since) {
+        if (since < 0 || since > game.getVersion())
+            throw new IllegalArgumentException("Unknown version " + since);
+        var players = game.getPlayers();
+        return new GameDelta(game.getId(), since, game.getVersion(), game.getStatus(),
+                GameState.cells(game, game.cellsChangedSince(since)),
+                since < 1 && !players.isEmpty() ? players.get(0).getId() : null,
+                since < 2 && players.size() == 2 ? players.get(1).getId() : null,
+                GameState.idOf(game.getCurrentPlayer()), GameState.idOf(game.getWinner()));
+    }
+}
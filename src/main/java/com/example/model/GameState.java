@@ -0,0 +1,72 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Compact view of a game for polling clients: the board as nine characters ('X', 'O' or '-'), player ids instead of
+ * nested players, and the version, which {@link GameDelta} and conditional requests build on.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GameState(String id, Game.GameStatus status, String board, String xPlayerId, String oPlayerId,
+        String currentPlayerId, String winnerId, int version) {
+
+    /** Read the game's current state; callers hold the game's lock so the fields agree with each other. */
+    public static GameState of(Game game) {
+        var players = game.getPlayers();
+        return new GameState(game.getId(), game.getStatus(), cells(game, Game.FULL_BOARD),
+                players.isEmpty() ? null : players.get(0).getId(),
+                players.size() < 2 ? null : players.get(1).getId(),
+                idOf(game.getCurrentPlayer()), idOf(game.getWinner()), game.getVersion());
+    }
+
+    /**
+     * The state of a recorded game, without building it: its players' ids (X first; null when not joined) and its
+     * moves, four bits per cell in play order, from which the board, status, turn and winner follow as in
+     * {@link Game}.
+     */
+    public static GameState of(String id, String xPlayerId, String oPlayerId, long moveOrder, int moveCount) {
+        var masks = new int[2];
+        var won = false;
+        for (int i = 0; i < moveCount; i++) {
+            var mover = i & 1;
+            masks[mover] |= 1 << (int) (moveOrder >>> (4 * i) & 0xF);
+            if (i == moveCount - 1) {
+                for (var line : Game.WIN_LINES)
+                    won |= (masks[mover] & line) == line;
+            }
+        }
+        Game.GameStatus status;
+        String current = null;
+        if (oPlayerId == null) {
+            status = Game.GameStatus.WAITING;
+        } else if (won || (masks[0] | masks[1]) == Game.FULL_BOARD) {
+            status = won ? Game.GameStatus.COMPLETED : Game.GameStatus.DRAW;
+            // The turn stays with whoever made the last move
+            current = (moveCount & 1) == 1 ? xPlayerId : oPlayerId;
+        } else {
+            status = Game.GameStatus.ACTIVE;
+            current = (moveCount & 1) == 0 ? xPlayerId : oPlayerId;
+        }
+        var players = (xPlayerId == null ? 0 : 1) + (oPlayerId == null ? 0 : 1);
+        return new GameState(id, status, cells(masks[0], masks[1]), xPlayerId, oPlayerId, current,
+                won ? current : null, players + moveCount);
+    }
+
+    /** The cells in {@code mask} as board characters; cells outside the mask are '-'. */
+    static String cells(Game game, int mask) {
+        return cells(game.getXMask() & mask, game.getOMask() & mask);
+    }
+
+    private static String cells(int x, int o) {
+        var board = new char[9];
+        for (int i = 0; i < 9; i++) {
+            var bit = 1 << i;
+            board[i] = (x & bit) != 0 ? 'X' : (o & bit) != 0 ? 'O' : '-';
+        }
+        return new String(board);
+    }
+
+    static String idOf(Player player) {
+        return player == null ? null : player.getId();
+    }
+}
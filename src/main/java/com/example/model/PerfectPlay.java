@@ -0,0 +1,160 @@
+package com.example.model;
+
+import java.util.Arrays;
+
+/**
+ * Tic-tac-toe solved: the minimax value and the best moves of every reachable position, so perfect play is a table
+ * lookup. Positions equal under one of the board's eight symmetries (rotations and reflections) share an entry,
+ * which leaves 765 of them; they are solved once, by a memoized minimax from the empty board, in milliseconds.
+ *
+ * A position is looked up by its canonical form, the smallest of its eight images, found with precomputed mask
+ * permutations: a constant amount of work and no search. Values are for the side to move.
+ */
+public final class PerfectPlay {
+
+    /** The side to move wins, draws or loses with best play from both sides. */
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+
+    private static final int POSITIONS = 19_683;
+    private static final byte UNSOLVED = 2;
+
+    // SYMMETRIES[s][cell]: the cell whose content the image under symmetry s shows at cell
+    private static final int[][] SYMMETRIES = new int[8][9];
+    // PERMUTED[s][mask]: the mask's image under symmetry s
+    private static final short[][] PERMUTED = new short[8][1 << 9];
+    // Base-3 digits of a mask, so x and o masks give a position's index below 3^9
+    private static final int[] TERNARY = new int[1 << 9];
+
+    static {
+        for (int s = 0; s < 8; s++) {
+            for (int cell = 0; cell < 9; cell++) {
+                var row = cell / 3;
+                var col = s >= 4 ? 2 - cell % 3 : cell % 3;
+                for (int turn = 0; turn < s % 4; turn++) {
+                    var rotated = 2 - col;
+                    col = row;
+                    row = rotated;
+                }
+                SYMMETRIES[s][cell] = row * 3 + col;
+            }
+            for (int mask = 0; mask < 1 << 9; mask++) {
+                var image = 0;
+                for (int cell = 0; cell < 9; cell++)
+                    if ((mask & 1 << SYMMETRIES[s][cell]) != 0)
+                        image |= 1 << cell;
+                PERMUTED[s][mask] = (short) image;
+            }
+        }
+        for (int mask = 0; mask < 1 << 9; mask++) {
+            var power = 1;
+            for (int cell = 0; cell < 9; cell++) {
+                if ((mask & 1 << cell) != 0)
+                    TERNARY[mask] += power;
+                power *= 3;
+            }
+        }
+    }
+
+    // Indexed by canonical position; other indexes stay unsolved
+    private final byte[] values = new byte[POSITIONS];
+    // The cells of the best moves, in the canonical position's orientation
+    private final short[] bestMoves = new short[POSITIONS];
+    private int positions;
+
+    public PerfectPlay() {
+        Arrays.fill(values, UNSOLVED);
+        solve(0, 0);
+    }
+
+    /** Number of distinct positions up to symmetry, terminal ones included. */
+    public int positions() {
+        return positions;
+    }
+
+    /** {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the side to move. */
+    public int value(int xMask, int oMask) {
+        var s = symmetry(xMask, oMask);
+        return values[solved(PERMUTED[s][xMask], PERMUTED[s][oMask])];
+    }
+
+    /** The cells where the side to move keeps the position's value; none once the game is over. */
+    public int bestMoves(int xMask, int oMask) {
+        var s = symmetry(xMask, oMask);
+        var canonical = bestMoves[solved(PERMUTED[s][xMask], PERMUTED[s][oMask])];
+        var moves = 0;
+        for (int cell = 0; cell < 9; cell++)
+            if ((canonical & 1 << cell) != 0)
+                moves |= 1 << SYMMETRIES[s][cell];
+        return moves;
+    }
+
+    private int solve(int x, int o) {
+        var index = index(x, o);
+        if (values[index] != UNSOLVED)
+            return values[index];
+        var xToMove = Integer.bitCount(x) == Integer.bitCount(o);
+        var value = LOSS - 1;
+        var best = 0;
+        if (wins(xToMove ? o : x)) {
+            value = LOSS;
+        } else if ((x | o) == Game.FULL_BOARD) {
+            value = DRAW;
+        } else {
+            for (int cell = 0; cell < 9; cell++) {
+                var bit = 1 << cell;
+                if (((x | o) & bit) != 0)
+                    continue;
+                var nx = xToMove ? x | bit : x;
+                var no = xToMove ? o : o | bit;
+                var s = symmetry(nx, no);
+                var child = -solve(PERMUTED[s][nx], PERMUTED[s][no]);
+                if (child > value) {
+                    value = child;
+                    best = bit;
+                } else if (child == value) {
+                    best |= bit;
+                }
+            }
+        }
+        values[index] = (byte) value;
+        bestMoves[index] = (short) best;
+        positions++;
+        return value;
+    }
+
+    /** The symmetry taking the position to its canonical form, the image with the smallest index. */
+    private static int symmetry(int x, int o) {
+        if ((x & o) != 0 || ((x | o) & ~Game.FULL_BOARD) != 0)
+            throw new IllegalArgumentException("Not a board");
+        var smallest = Integer.MAX_VALUE;
+        var symmetry = 0;
+        for (int s = 0; s < 8; s++) {
+            var index = index(PERMUTED[s][x], PERMUTED[s][o]);
+            if (index < smallest) {
+                smallest = index;
+                symmetry = s;
+            }
+        }
+        return symmetry;
+    }
+
+    private int solved(int x, int o) {
+        var index = index(x, o);
+        if (values[index] == UNSOLVED)
+            throw new IllegalArgumentException("Not a reachable position");
+        return index;
+    }
+
+    private static int index(int x, int o) {
+        return TERNARY[x] + 2 * TERNARY[o];
+    }
+
+    private static boolean wins(int mask) {
+        for (var line : Game.WIN_LINES)
+            if ((mask & line) == line)
+                return true;
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
@@ -9,14 +10,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Entity
 @Table(name = "players")
@@ -49,6 +53,13 @@ public class Player {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Bumped on every change of the player or its stats, e.g. for ETags of representations that embed the player
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicLong revision = new AtomicLong();
+
     public Player() {
         this.id = UUID.randomUUID().toString();
         this.stats = new PlayerStats();
@@ -62,6 +73,16 @@ public class Player {
         this.email = email;
     }
 
+    /** Count of changes to the player and its stats in this process; starts at 0 on every restart. */
+    @JsonIgnore
+    public long getRevision() {
+        return revision.get();
+    }
+
+    public void touch() {
+        revision.incrementAndGet();
+    }
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -1,19 +1,44 @@
 package com.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Embeddable;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 @Embeddable
 @Getter
 @Setter
 public class PlayerStats {
 
-    private int gamesPlayed = 0;
-    private int gamesWon = 0;
-    private int gamesLost = 0;
-    private int gamesDrawn = 0;
-    private int totalMoves = 0;
+    // A player can be in several games at once, and each game mutates under its own lock,
+    // so the counters are updated atomically rather than with ++
+    private static final AtomicIntegerFieldUpdater<PlayerStats> GAMES_PLAYED =
+            AtomicIntegerFieldUpdater.newUpdater(PlayerStats.class, "gamesPlayed");
+    private static final AtomicIntegerFieldUpdater<PlayerStats> GAMES_WON =
+            AtomicIntegerFieldUpdater.newUpdater(PlayerStats.class, "gamesWon");
+    private static final AtomicIntegerFieldUpdater<PlayerStats> GAMES_LOST =
+            AtomicIntegerFieldUpdater.newUpdater(PlayerStats.class, "gamesLost");
+    private static final AtomicIntegerFieldUpdater<PlayerStats> GAMES_DRAWN =
+            AtomicIntegerFieldUpdater.newUpdater(PlayerStats.class, "gamesDrawn");
+    private static final AtomicIntegerFieldUpdater<PlayerStats> TOTAL_MOVES =
+            AtomicIntegerFieldUpdater.newUpdater(PlayerStats.class, "totalMoves");
+
+    private volatile int gamesPlayed = 0;
+    private volatile int gamesWon = 0;
+    private volatile int gamesLost = 0;
+    private volatile int gamesDrawn = 0;
+    private volatile int totalMoves = 0;
+
+    // Notified after every counter change, e.g. to keep ranking indexes current
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Runnable changeListener;
 
     public double getWinRate() {
         return gamesPlayed == 0 ? 0.0 : (double) gamesWon / gamesPlayed;
@@ -24,22 +49,38 @@ public class PlayerStats {
     }
 
     public void incrementGamesPlayed() {
-        this.gamesPlayed++;
+        GAMES_PLAYED.incrementAndGet(this);
+        changed();
     }
 
     public void incrementGamesWon() {
-        this.gamesWon++;
+        GAMES_WON.incrementAndGet(this);
+        changed();
     }
 
     public void incrementGamesLost() {
-        this.gamesLost++;
+        GAMES_LOST.incrementAndGet(this);
+        changed();
     }
 
     public void incrementGamesDrawn() {
-        this.gamesDrawn++;
+        GAMES_DRAWN.incrementAndGet(this);
+        changed();
     }
 
     public void addMoves(int moves) {
-        this.totalMoves += moves;
+        TOTAL_MOVES.addAndGet(this, moves);
+        changed();
+    }
+
+    /** Register the callback run after each counter change; replaces any previous one. */
+    public void onChange(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    private void changed() {
+        var listener = changeListener;
+        if (listener != null)
+            listener.run();
     }
 }
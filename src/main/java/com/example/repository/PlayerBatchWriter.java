@@ -0,0 +1,12 @@
+package com.example.repository;
+
+import com.example.model.Player;
+
+import java.util.List;
+
+/** Bulk writes for {@link PlayerRepository} that bypass the persistence context. */
+public interface PlayerBatchWriter {
+
+    /** Insert or update the players' current state in a single JDBC batch. */
+    void upsertAll(List<Player> players);
+}
@@ -0,0 +1,101 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.PerfectPlay;
+import com.example.model.Player;
+import com.example.service.GameService.InvalidGameStateException;
+import com.example.service.GameService.PlayerNotFoundException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The server as an opponent: one computer player per difficulty, registered with the {@link GameService} so it
+ * replies to each move within the same call. Replies come from the solved {@link PerfectPlay} table, built at
+ * startup, so choosing one is a lookup. Below PERFECT, a difficulty deliberately plays a move that is not among the
+ * best ones at its mistake rate.
+ *
+ * The computer players are reserved players (see {@link PlayerService#reservePlayer}), found again by their email
+ * after a restart; it runs after the journal so games against them are back before the replies resume.
+ */
+@Component
+@DependsOn("gameJournal")
+public class ComputerOpponent {
+
+    private static final Logger log = LoggerFactory.getLogger(ComputerOpponent.class);
+
+    private static final String GAME_NAME = "Against the computer";
+
+    private final GameService gameService;
+    private final PlayerService playerService;
+    private final PerfectPlay table;
+    private final Map<Difficulty, Player> players = new EnumMap<>(Difficulty.class);
+
+    public ComputerOpponent(GameService gameService, PlayerService playerService) {
+        this.gameService = gameService;
+        this.playerService = playerService;
+        var started = System.nanoTime();
+        table = new PerfectPlay();
+        log.info("Solved {} positions for the computer opponent in {} ms", table.positions(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PostConstruct
+    void start() {
+        for (var difficulty : Difficulty.values()) {
+            var name = difficulty.name().toLowerCase(Locale.ROOT);
+            var player = playerService.reservePlayer("Computer (" + name + ")",
+                    name + PlayerService.RESERVED_EMAIL_DOMAIN);
+            players.put(difficulty, player);
+            gameService.addComputerPlayer(player.getId(), game -> chooseMove(game, difficulty));
+        }
+    }
+
+    /** A new game of the player against the computer, already started with the player to move first. */
+    public Game play(String playerId, Difficulty difficulty) {
+        var player = playerService.findById(playerId)
+                .orElseThrow(() -> new PlayerNotFoundException("Player not found"));
+        if (players.containsValue(player))
+            throw new InvalidGameStateException("Computer players cannot start games");
+        return gameService.createMatch(GAME_NAME, player, players.get(difficulty));
+    }
+
+    /** The computer player of the difficulty. */
+    public Player player(Difficulty difficulty) {
+        return players.get(difficulty);
+    }
+
+    /** The cell to play: one of the best, or at the difficulty's mistake rate one that is not (if there is one). */
+    int chooseMove(Game game, Difficulty difficulty) {
+        var x = game.getXMask();
+        var o = game.getOMask();
+        var free = ~(x | o) & Game.FULL_BOARD;
+        var best = table.bestMoves(x, o);
+        var random = ThreadLocalRandom.current();
+        var candidates = best;
+        if ((free & ~best) != 0 && random.nextDouble() < difficulty.mistakeRate)
+            candidates = free & ~best;
+        // The n-th set bit, for a uniform pick among the candidates
+        for (int n = random.nextInt(Integer.bitCount(candidates)); n > 0; n--)
+            candidates &= candidates - 1;
+        return Integer.numberOfTrailingZeros(candidates);
+    }
+
+    public enum Difficulty {
+        EASY(0.6), MEDIUM(0.3), HARD(0.1), PERFECT(0);
+
+        /** Share of moves that deliberately miss the best ones. */
+        final double mistakeRate;
+
+        Difficulty(double mistakeRate) {
+            this.mistakeRate = mistakeRate;
+        }
+    }
+}
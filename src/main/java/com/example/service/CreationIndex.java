@@ -0,0 +1,99 @@
+package com.example.service;
+
+import com.example.service.Cursors.Page;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/** Ids (of players or games) ordered by creation time, ties broken by id, for range seeks and stable paging. */
+class CreationIndex {
+
+    private record Key(LocalDateTime createdAt, String id) {
+    }
+
+    private static final Comparator<Key> ORDER = Comparator.comparing(Key::createdAt).thenComparing(Key::id);
+    // Sentinel ids sorting before / after every real (UUID) id at the same instant
+    private static final String LOWEST_ID = "";
+    private static final String HIGHEST_ID = "\uffff";
+    private static final char SEPARATOR = '|';
+
+    private final NavigableSet<Key> keys = new ConcurrentSkipListSet<>(ORDER);
+
+    void add(String id, LocalDateTime createdAt) {
+        keys.add(new Key(createdAt, id));
+    }
+
+    void remove(String id, LocalDateTime createdAt) {
+        keys.remove(new Key(createdAt, id));
+    }
+
+    /** All ids, oldest first, walking the index lazily. */
+    Stream<String> ids() {
+        return keys.stream().map(Key::id);
+    }
+
+    /** Ids created in [from, to), either bound optional, oldest first, walking the index lazily. */
+    Stream<String> ids(LocalDateTime from, LocalDateTime to) {
+        NavigableSet<Key> range = keys;
+        if (from != null)
+            range = range.tailSet(new Key(from, LOWEST_ID), true);
+        if (to != null)
+            range = range.headSet(new Key(to, LOWEST_ID), false);
+        return range.stream().map(Key::id);
+    }
+
+    /** Ids created in [from, to), either bound optional, oldest first. */
+    Page range(LocalDateTime from, LocalDateTime to, int limit, String cursor) {
+        return page(from == null ? null : new Key(from, LOWEST_ID), true,
+                to == null ? null : new Key(to, LOWEST_ID), limit, cursor);
+    }
+
+    /** Ids created strictly after {@code after} and strictly before {@code before}, oldest first. */
+    Page between(LocalDateTime after, LocalDateTime before, int limit) {
+        return page(new Key(after, HIGHEST_ID), false, new Key(before, LOWEST_ID), limit, null);
+    }
+
+    private Page page(Key lower, boolean lowerInclusive, Key upper, int limit, String cursor) {
+        var after = decode(cursor);
+        if (after != null) {
+            lower = after;
+            lowerInclusive = false;
+        }
+        if (lower != null && upper != null && ORDER.compare(lower, upper) >= 0)
+            return new Page(List.of(), null);
+        NavigableSet<Key> range = keys;
+        if (lower != null)
+            range = range.tailSet(lower, lowerInclusive);
+        if (upper != null)
+            range = range.headSet(upper, false);
+
+        var result = new ArrayList<String>();
+        for (var key : range) {
+            result.add(key.createdAt() + String.valueOf(SEPARATOR) + key.id());
+            if (result.size() > limit)
+                break;
+        }
+        var page = Cursors.page(result, limit);
+        var ids = new ArrayList<String>(page.ids().size());
+        for (var key : page.ids())
+            ids.add(key.substring(key.indexOf(SEPARATOR) + 1));
+        return new Page(ids, page.nextCursor());
+    }
+
+    private static Key decode(String cursor) {
+        var key = Cursors.decode(cursor);
+        if (key == null)
+            return null;
+        var separator = key.indexOf(SEPARATOR);
+        try {
+            return new Key(LocalDateTime.parse(key.substring(0, separator)), key.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
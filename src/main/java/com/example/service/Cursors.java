@@ -0,0 +1,41 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/** Opaque pagination cursors: the last index key of a page, URL-safe Base64 encoded. */
+final class Cursors {
+
+    /** One page of index results; {@code nextCursor} is null on the last page. */
+    record Page(List<String> ids, String nextCursor) {
+    }
+
+    private Cursors() {
+    }
+
+    /**
+     * Page from up to limit + 1 collected keys: the extra key only signals that there is a next page,
+     * whose cursor is the last key kept.
+     */
+    static Page page(List<String> keys, int limit) {
+        if (keys.size() <= limit)
+            return new Page(keys, null);
+        return new Page(keys.subList(0, limit), encode(keys.get(limit - 1)));
+    }
+
+    static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The key a cursor was made from, or null for a missing cursor (first page). */
+    static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty())
+            return null;
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Game.GameStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Finished games moved out of the live map, packed into an append-only file (the snapshot's game encoding) so they
+ * can still be fetched by id. The heap only keeps a primitive index from id to file offset: two longs of UUID and
+ * one offset per game in flat arrays, with no per-game objects. A fetch reads and decodes the record again.
+ *
+ * Records are a kind byte, the payload length, the payload (status byte, then the game or, for a removal, its id)
+ * and a CRC32C of the payload. The index and the per-status counts are rebuilt by scanning the file on startup; a
+ * torn tail is cut off.
+ */
+@Component
+public class GameArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchive.class);
+
+    private static final byte GAME = 1;
+    private static final byte REMOVED = 2;
+    private static final int RECORD_HEADER_BYTES = 1 + 4;
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    @Value("${game-retention.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${game-retention.archive-dir:./data/archive}")
+    private Path dir = Path.of("./data/archive");
+
+    private final PlayerService playerService;
+    // Write lock for appends and index changes; lookups share the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Game id to file offset
+    private final UuidIndex index = new UuidIndex();
+    private final Map<GameStatus, LongAdder> counts = new EnumMap<>(GameStatus.class);
+    private final ByteBuffer scratch =
+            ByteBuffer.allocate(RECORD_HEADER_BYTES + 1 + SnapshotFile.MAX_GAME_BYTES + 4);
+    private final CRC32C crc = new CRC32C();
+    private FileChannel channel;
+    private long end;
+
+    public GameArchive(PlayerService playerService) {
+        this.playerService = playerService;
+        for (var status : STATUSES)
+            counts.put(status, new LongAdder());
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled)
+            return;
+        Files.createDirectories(dir);
+        channel = FileChannel.open(dir.resolve("games.archive"), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        end = scan();
+        if (end < channel.size()) {
+            log.warn("Cutting off {} bytes of torn or corrupt records at the end of the game archive",
+                    channel.size() - end);
+            channel.truncate(end);
+        }
+        log.info("Game archive holds {} games", index.size());
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (channel != null)
+            channel.close();
+    }
+
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    /** Append the games and force them to disk, so they are safe before they leave the live map. */
+    void addAll(List<Game> games) throws IOException {
+        lock.writeLock().lock();
+        try {
+            var offsets = new long[games.size()];
+            var position = end;
+            for (int i = 0; i < games.size(); i++) {
+                var game = games.get(i);
+                begin(GAME, game.getStatus());
+                SnapshotFile.encodeGame(scratch, game);
+                offsets[i] = position;
+                position += write(position);
+            }
+            channel.force(false);
+            // Only now visible: a failed batch leaves no index entries behind
+            end = position;
+            for (int i = 0; i < games.size(); i++) {
+                var game = games.get(i);
+                var previous = index.put(game.getId(), offsets[i]);
+                if (previous < 0)
+                    counts.get(game.getStatus()).increment();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** The archived game, rebuilt from its record; players deleted since are stood in for by their id alone. */
+    public Optional<Game> find(String id) {
+        long offset;
+        lock.readLock().lock();
+        try {
+            offset = index.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (offset < 0)
+            return Optional.empty();
+        try {
+            var payload = read(offset);
+            payload.get();
+            return Optional.of(SnapshotFile.decodeGame(payload, playerService::findOrStandIn));
+        } catch (IOException e) {
+            log.warn("Could not read archived game {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    /** Drop an archived game; its status, or null when it is not archived. */
+    GameStatus remove(String id) throws IOException {
+        lock.writeLock().lock();
+        try {
+            var offset = index.get(id);
+            if (offset < 0)
+                return null;
+            var status = STATUSES[read(offset).get()];
+            begin(REMOVED, status);
+            SnapshotFile.putString(scratch, id);
+            end += write(end);
+            index.remove(id);
+            counts.get(status).decrement();
+            return status;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long count(GameStatus status) {
+        return counts.get(status).sum();
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void begin(byte kind, GameStatus status) {
+        scratch.clear();
+        scratch.put(kind).putInt(0).put((byte) status.ordinal());
+    }
+
+    /** Finish the record in the scratch buffer and write it at the position; returns its size. */
+    private int write(long position) throws IOException {
+        var length = scratch.position() - RECORD_HEADER_BYTES;
+        crc.reset();
+        crc.update(scratch.array(), RECORD_HEADER_BYTES, length);
+        scratch.putInt(1, length).putInt((int) crc.getValue()).flip();
+        var size = scratch.remaining();
+        while (scratch.hasRemaining())
+            position += channel.write(scratch, position);
+        return size;
+    }
+
+    /** The checked payload of the record at the offset. */
+    private ByteBuffer read(long offset) throws IOException {
+        var header = readFully(offset, RECORD_HEADER_BYTES);
+        header.get();
+        var length = header.getInt();
+        if (length < 1 || length > scratch.capacity())
+            throw new IOException("Bad archive record length " + length + " at " + offset);
+        var payload = readFully(offset + RECORD_HEADER_BYTES, length + 4);
+        var check = new CRC32C();
+        check.update(payload.array(), 0, length);
+        if (payload.getInt(length) != (int) check.getValue())
+            throw new IOException("Corrupt archive record at " + offset);
+        return payload.limit(length);
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Truncated archive record at " + position);
+        }
+        return buffer.flip();
+    }
+
+    /** Rebuild the index and counts from the file; returns where the last intact record ends. */
+    private long scan() {
+        var position = 0L;
+        while (true) {
+            byte kind;
+            ByteBuffer payload;
+            try {
+                kind = readFully(position, 1).get();
+                payload = read(position);
+            } catch (IOException e) {
+                return position;
+            }
+            var status = STATUSES[payload.get()];
+            if (kind == GAME) {
+                // The id leads the encoded game
+                if (index.put(SnapshotFile.getString(payload), position) < 0)
+                    counts.get(status).increment();
+            } else if (index.remove(SnapshotFile.getString(payload))) {
+                counts.get(status).decrement();
+            }
+            position += RECORD_HEADER_BYTES + payload.limit() + 4;
+        }
+    }
+}
@@ -0,0 +1,715 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.service.GameService.Change;
+import com.example.service.GameService.GameListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of game events (create, join, move, delete) in memory-mapped segment files, replayed on
+ * startup to rebuild the in-memory games. The changing thread encodes its record and hands it to a single writer
+ * thread, which copies records into the mapped segment in the order they were handed over; games never wait on
+ * each other or on the disk. A sync thread forces the segment to disk every sync interval, covering every record
+ * written since in one flush. Records survive a process crash once the writer has copied them, normally within
+ * microseconds, and a power loss loses at most one interval. When a new segment cannot be opened (e.g. the disk is
+ * full) the writer keeps the records queued and retries, so the journal catches up with memory rather than
+ * failing the change that was already made.
+ *
+ * At most max-pending records wait for the writer. A change that finds the queue full waits up to the enqueue
+ * timeout for room; if there is still none, the journal is unhealthy: that change and every one after it fail with
+ * {@link JournalUnavailableException} without waiting, since their records could not be replayed after the ones
+ * lost. The next snapshot that succeeds covers the changes made meanwhile, and the journal accepts changes again.
+ *
+ * Each record is a type byte, its fields and a CRC32C of both; replay of a segment stops at the first zero type
+ * byte (the unwritten, zero-filled tail) or at a record that is torn or fails its checksum. Player stats are not
+ * replayed, since the players are persisted with them already.
+ *
+ * Every snapshot interval the journal moves on to a new segment and a {@link SnapshotFile} of the games is written
+ * in the background; once it is in place, the segments before the one preceding it are deleted. Startup loads the
+ * latest snapshot and replays only the segments from the preceding one on, so recovery time follows the snapshot
+ * interval rather than the whole history. The preceding segment is kept because a game created just before the
+ * switch may reach the map too late for the snapshot; replaying it onto the snapshot is harmless.
+ *
+ * A game that refers to a player who no longer exists cannot be rebuilt, but is not given up either: it is left out
+ * of memory and kept, as the records that rebuild it, in {@code unresolved.log}, which every startup replays first.
+ * Once its players exist again (e.g. restored from a backup) the game comes back and is journaled afresh.
+ */
+@Component
+@DependsOn("playerWriteBehind")
+public class GameJournal implements GameListener {
+
+    private static final Logger log = LoggerFactory.getLogger(GameJournal.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final String UNRESOLVED_FILE = "unresolved.log";
+
+    private static final byte END = 0;
+    private static final byte CREATE = 1;
+    private static final byte JOIN = 2;
+    private static final byte MOVE = 3;
+    private static final byte DELETE = 4;
+
+    private static final int MAX_ID_BYTES = 255;
+    private static final int MAX_NAME_BYTES = 0xFFFE;
+    private static final int NO_NAME = 0xFFFF;
+
+    @Value("${game-journal.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${game-journal.dir:./data/journal}")
+    private Path dir = Path.of("./data/journal");
+
+    @Value("${game-journal.segment-mb:64}")
+    private int segmentMb = 64;
+
+    @Value("${game-journal.sync-interval-ms:10}")
+    private long syncIntervalMs = 10;
+
+    @Value("${game-journal.snapshot-interval-ms:300000}")
+    private long snapshotIntervalMs = 300_000;
+
+    @Value("${game-journal.max-pending:65536}")
+    private int maxPending = 65_536;
+
+    @Value("${game-journal.enqueue-timeout-ms:5000}")
+    private long enqueueTimeoutMs = 5_000;
+
+    // Players are snapshotted too only when they are not persisted in the database, which is their source of truth
+    @Value("${player-store.enabled:true}")
+    private boolean playerStoreEnabled = true;
+
+    private final GameService gameService;
+    private final PlayerService playerService;
+    // Encoded records, and tasks to run between them, in the order the writer takes them
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    // Room left in the queue: taken by enqueue, given back as the writer takes items
+    private Semaphore room;
+    // Set when a record could not be queued, until a snapshot covers the changes since
+    private volatile boolean unhealthy;
+    // Current segment; the writer alone writes to it and moves it on
+    private volatile MappedByteBuffer segment;
+    private long segmentIndex;
+    private volatile boolean dirty;
+    private Thread writer;
+    private volatile boolean writerIdle;
+    private volatile boolean stopping;
+    private ScheduledExecutorService syncer;
+    private ScheduledExecutorService snapshotter;
+
+    public GameJournal(GameService gameService, PlayerService playerService) {
+        this.gameService = gameService;
+        this.playerService = playerService;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled)
+            return;
+        if (segmentMb <= 0)
+            segmentMb = 64;
+        if (syncIntervalMs <= 0)
+            syncIntervalMs = 10;
+        if (maxPending <= 0)
+            maxPending = 65_536;
+        if (enqueueTimeoutMs < 0)
+            enqueueTimeoutMs = 5_000;
+        open();
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "game-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::sync, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+        if (snapshotIntervalMs > 0) {
+            // Own thread: a snapshot of many games takes a while, and syncs must not wait for it
+            snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "game-journal-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotter.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshot();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not write a snapshot; the journal is kept until the next one", e);
+                }
+            }, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Load the latest snapshot and replay the segments after it into the game service, then record changes after
+     * the last good record of the last segment (or in a new one when there is none after the snapshot).
+     */
+    void open() throws IOException {
+        Files.createDirectories(dir);
+        var unresolved = new ConcurrentHashMap<String, UnresolvedGame>();
+        var first = 0L;
+        var next = 0L;
+        var snapshots = list(SNAPSHOT_NAME);
+        if (!snapshots.isEmpty()) {
+            var latest = snapshots.get(snapshots.size() - 1);
+            var started = System.nanoTime();
+            var loaded = SnapshotFile.load(latest, playerService, !playerStoreEnabled, gameService,
+                    game -> unresolved.put(game.id(), game));
+            log.info("Loaded {} games and {} players from {} in {} ms; held back {} games with unknown players",
+                    loaded.games(), loaded.players(), latest.getFileName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), loaded.droppedGames());
+            first = loaded.segment() - 1;
+            next = loaded.segment();
+        }
+        // Before the segments, which may go on to change or delete the games held back
+        var held = dir.resolve(UNRESOLVED_FILE);
+        var retried = new HashSet<String>();
+        if (Files.exists(held))
+            replay(held, unresolved, retried);
+        var segments = list(SEGMENT_NAME);
+        var records = 0L;
+        var replayed = 0;
+        var end = 0;
+        for (var path : segments) {
+            if (indexOf(path) >= first) {
+                var result = replay(path, unresolved, null);
+                records += result.records();
+                end = result.end();
+                replayed++;
+            }
+        }
+        var last = segments.isEmpty() ? -1 : indexOf(segments.get(segments.size() - 1));
+        if (last >= next) {
+            // Carry on after the last good record, rather than leaving a mostly empty segment behind every restart
+            segmentIndex = last;
+            segment = reopen(segmentIndex, end);
+        } else {
+            // Never below the segment the snapshot covers, so the next startup does not skip the new one
+            segmentIndex = next;
+            segment = map(segmentIndex);
+        }
+        stopping = false;
+        unhealthy = false;
+        room = new Semaphore(maxPending);
+        writer = new Thread(this::write, "game-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Games held back before whose players are back now have no other record than the file rewritten below
+        retried.removeAll(unresolved.keySet());
+        for (var gameId : retried)
+            gameService.findById(gameId).ifPresent(this::journal);
+        hold(held, unresolved.values());
+        log.info("Replayed {} journal records from {} segments; holding {} games with unknown players in {}",
+                records, replayed, unresolved.size(), UNRESOLVED_FILE);
+        gameService.addListener(this);
+    }
+
+    /** Write out every record handed over so far, then stop the writer; idempotent. */
+    @PreDestroy
+    void stop() {
+        if (snapshotter != null)
+            snapshotter.shutdownNow();
+        if (syncer != null)
+            syncer.shutdownNow();
+        if (writer != null) {
+            stopping = true;
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sync();
+    }
+
+    /** False from a record that could not be queued until a snapshot covers the changes made since. */
+    public boolean isHealthy() {
+        return !unhealthy;
+    }
+
+    /**
+     * Move the journal on to a new segment and write a snapshot that covers everything before it, without stopping
+     * changes; then delete the history the snapshot makes redundant.
+     */
+    void snapshot() throws IOException {
+        // On the writer, so every record handed over before this goes to the segments the snapshot covers
+        var rolled = new CompletableFuture<Long>();
+        var recovering = new AtomicBoolean();
+        var task = (Runnable) () -> {
+            try {
+                roll();
+                // Changes from here on are journaled after the snapshot; those refused before are in it
+                recovering.set(unhealthy);
+                unhealthy = false;
+                rolled.complete(segmentIndex);
+            } catch (IOException | RuntimeException e) {
+                rolled.completeExceptionally(e);
+            }
+        };
+        long covered;
+        try {
+            // However long it takes: nothing waits on this thread, and a snapshot is what ends a refusal
+            room.acquire();
+            add(task);
+            covered = rolled.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while moving to a new journal segment", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        var path = snapshotPath(covered);
+        var temporary = dir.resolve(path.getFileName() + ".tmp");
+        var started = System.nanoTime();
+        try {
+            SnapshotFile.write(temporary, covered, playerStoreEnabled ? null : playerService, gameService);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            // The changes refused before are in no file yet
+            if (recovering.get())
+                unhealthy = true;
+            throw e;
+        }
+        if (recovering.get())
+            log.info("Journal accepts changes again; {} covers those it refused", path.getFileName());
+        for (var older : list(SNAPSHOT_NAME)) {
+            if (indexOf(older) < covered)
+                Files.deleteIfExists(older);
+        }
+        for (var older : list(SEGMENT_NAME)) {
+            if (indexOf(older) < covered - 1)
+                Files.deleteIfExists(older);
+        }
+        log.info("Wrote {} in {} ms", path.getFileName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Records are encoded on the changing thread, which holds the game's lock, so each game's records are handed
+    // over in the order of its changes
+
+    @Override
+    public void gameCreated(Game game) {
+        enqueue(create(game.getId(), game.getName(), game.getCreatedAt()));
+    }
+
+    @Override
+    public void gameChanged(Game game, Change change) {
+        // The last player or move is the one the change is about
+        if (change == Change.JOINED) {
+            var players = game.getPlayers();
+            enqueue(join(game.getId(), players.get(players.size() - 1).getId()));
+        } else {
+            enqueue(move(game.getId(), game.positionOfMove(game.getMoveCount() - 1)));
+        }
+    }
+
+    @Override
+    public void gameDeleted(String gameId) {
+        var id = bytes(gameId, MAX_ID_BYTES);
+        var record = begin(DELETE, 1 + id.length);
+        putId(record, id);
+        enqueue(seal(record));
+    }
+
+    /**
+     * A game whose players are not all known: what its records say, gathered at startup until they are. A repeated
+     * join or move (from history replayed onto a snapshot that already had it) is taken once.
+     */
+    record UnresolvedGame(String id, String name, LocalDateTime createdAt, List<String> playerIds,
+            List<Integer> moves) {
+
+        UnresolvedGame(String id, String name, LocalDateTime createdAt) {
+            this(id, name, createdAt, new ArrayList<>(2), new ArrayList<>(9));
+        }
+
+        void joined(String playerId) {
+            if (!playerIds.contains(playerId))
+                playerIds.add(playerId);
+        }
+
+        void moved(int position) {
+            if (!moves.contains(position))
+                moves.add(position);
+        }
+    }
+
+    /** Journal a game restored from {@code unresolved.log} as if it had just been played. */
+    private void journal(Game game) {
+        enqueue(create(game.getId(), game.getName(), game.getCreatedAt()));
+        for (var player : game.getPlayers())
+            enqueue(join(game.getId(), player.getId()));
+        for (int i = 0; i < game.getMoveCount(); i++)
+            enqueue(move(game.getId(), game.positionOfMove(i)));
+    }
+
+    /** Rewrite {@code unresolved.log} with the games still held back, or remove it if there are none. */
+    private void hold(Path path, Collection<UnresolvedGame> games) throws IOException {
+        if (games.isEmpty()) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        var temporary = dir.resolve(UNRESOLVED_FILE + ".tmp");
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (var game : games) {
+                channel.write(ByteBuffer.wrap(create(game.id(), game.name(), game.createdAt())));
+                for (var playerId : game.playerIds())
+                    channel.write(ByteBuffer.wrap(join(game.id(), playerId)));
+                for (var position : game.moves())
+                    channel.write(ByteBuffer.wrap(move(game.id(), position)));
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Force everything appended so far to disk. */
+    void sync() {
+        var current = segment;
+        if (!dirty || current == null)
+            return;
+        // Cleared first: a record appended during the force marks it dirty again for the next round
+        dirty = false;
+        current.force();
+    }
+
+    /** A buffer for a record of the type with fields of the given size, and room for its checksum. */
+    private static ByteBuffer begin(byte type, int fieldBytes) {
+        return ByteBuffer.allocate(1 + fieldBytes + 4).put(type);
+    }
+
+    private static byte[] bytes(String value, int maxBytes) {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= maxBytes ? bytes : Arrays.copyOf(bytes, maxBytes);
+    }
+
+    private static void putId(ByteBuffer record, byte[] id) {
+        record.put((byte) id.length);
+        record.put(id);
+    }
+
+    private static byte[] create(String gameId, String name, LocalDateTime createdAt) {
+        var id = bytes(gameId, MAX_ID_BYTES);
+        var nameBytes = name == null ? null : bytes(name, MAX_NAME_BYTES);
+        var record = begin(CREATE, 1 + id.length + 12 + 2 + (nameBytes == null ? 0 : nameBytes.length));
+        putId(record, id);
+        record.putLong(createdAt.toEpochSecond(ZoneOffset.UTC)).putInt(createdAt.getNano());
+        if (nameBytes == null) {
+            record.putShort((short) NO_NAME);
+        } else {
+            record.putShort((short) nameBytes.length);
+            record.put(nameBytes);
+        }
+        return seal(record);
+    }
+
+    private static byte[] join(String gameId, String playerId) {
+        var id = bytes(gameId, MAX_ID_BYTES);
+        var player = bytes(playerId, MAX_ID_BYTES);
+        var record = begin(JOIN, 1 + id.length + 1 + player.length);
+        putId(record, id);
+        putId(record, player);
+        return seal(record);
+    }
+
+    private static byte[] move(String gameId, int position) {
+        var id = bytes(gameId, MAX_ID_BYTES);
+        var record = begin(MOVE, 1 + id.length + 1);
+        putId(record, id);
+        record.put((byte) position);
+        return seal(record);
+    }
+
+    /** The record with its checksum appended. */
+    private static byte[] seal(ByteBuffer record) {
+        var crc = new CRC32C();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    private void enqueue(Object item) {
+        if (unhealthy)
+            throw new JournalUnavailableException("Game journal is unavailable");
+        var queued = false;
+        try {
+            queued = room.tryAcquire(enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queued) {
+            if (!unhealthy) {
+                unhealthy = true;
+                log.error("Journal queue still full after {} ms; refusing changes until the next snapshot",
+                        enqueueTimeoutMs);
+            }
+            throw new JournalUnavailableException("Game journal is unavailable");
+        }
+        add(item);
+    }
+
+    /** Hand the item to the writer; the caller has taken its room. */
+    private void add(Object item) {
+        queue.add(item);
+        if (writerIdle)
+            LockSupport.unpark(writer);
+    }
+
+    /** The writer thread: copies records into the segment in the order they were handed over, until stopped. */
+    private void write() {
+        while (true) {
+            var item = queue.poll();
+            if (item == null) {
+                if (stopping)
+                    return;
+                writerIdle = true;
+                // Re-checked after announcing the wait, so a record handed over just before is not left behind
+                if (queue.isEmpty() && !stopping)
+                    LockSupport.park(this);
+                writerIdle = false;
+                continue;
+            }
+            room.release();
+            if (item instanceof byte[] record) {
+                if (!write(record)) {
+                    log.error("Journal stopped with {} records not written", queue.size() + 1);
+                    queue.clear();
+                    return;
+                }
+            } else {
+                ((Runnable) item).run();
+            }
+        }
+    }
+
+    /** Copy the record into the segment, retrying a segment that cannot be opened; false if stopped meanwhile. */
+    private boolean write(byte[] record) {
+        var failures = 0;
+        // Room for the record plus the end marker after it
+        while (segment.remaining() < record.length + 1) {
+            try {
+                roll();
+            } catch (IOException e) {
+                if (failures++ == 0)
+                    log.error("Could not open journal segment {}; holding records until it can be",
+                            segmentIndex + 1, e);
+                if (stopping)
+                    return false;
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+        if (failures > 0)
+            log.info("Opened journal segment {} after {} attempts", segmentIndex, failures + 1);
+        segment.put(record);
+        dirty = true;
+        return true;
+    }
+
+    /** Continue in the next segment; the current one stays when the next cannot be opened. */
+    private void roll() throws IOException {
+        var next = map(segmentIndex + 1);
+        segment.force();
+        segment = next;
+        segmentIndex++;
+    }
+
+    private MappedByteBuffer map(long index) throws IOException {
+        try (var channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping outlives the channel; the file is extended with zeros, which read back as END
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentMb << 20);
+        }
+    }
+
+    /**
+     * Map an existing segment to append after its last good record at {@code end}. Anything after that (a torn
+     * record, or a page that reached the disk when an earlier one did not) is zeroed so it reads as END.
+     */
+    private MappedByteBuffer reopen(long index, int end) throws IOException {
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(segmentPath(index), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), (long) segmentMb << 20));
+        }
+        var written = end;
+        for (var i = end; i < buffer.limit(); i++) {
+            if (buffer.get(i) != END)
+                written = i + 1;
+        }
+        for (var i = end; i < written; i++)
+            buffer.put(i, END);
+        return buffer.position(end);
+    }
+
+    /** Records applied from a segment, and the position after the last good one. */
+    private record Replayed(long records, int end) {
+    }
+
+    /**
+     * Apply a segment's records; those of games with unknown players go to {@code unresolved} instead, taking the
+     * game out of memory if it was there. The ids of games created are added to {@code created} unless it is null.
+     */
+    private Replayed replay(Path path, Map<String, UnresolvedGame> unresolved, Set<String> created)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        var records = 0L;
+        var check = new CRC32C();
+        while (buffer.hasRemaining()) {
+            var start = buffer.position();
+            try {
+                var type = buffer.get();
+                if (type == END)
+                    return new Replayed(records, start);
+                var gameId = getString(buffer, false);
+                Runnable apply;
+                switch (type) {
+                    case CREATE -> {
+                        var createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+                        var name = getString(buffer, true);
+                        apply = () -> {
+                            if (created != null)
+                                created.add(gameId);
+                            if (!unresolved.containsKey(gameId))
+                                gameService.replayCreated(gameId, name, createdAt);
+                        };
+                    }
+                    case JOIN -> {
+                        var playerId = getString(buffer, false);
+                        apply = () -> {
+                            var held = unresolved.get(gameId);
+                            if (held != null)
+                                held.joined(playerId);
+                            else if (playerService.findById(playerId).isPresent())
+                                gameService.replayJoined(gameId, playerId);
+                            else
+                                gameService.findById(gameId)
+                                        .ifPresent(game -> unresolved.put(gameId, holdBack(game, playerId)));
+                        };
+                    }
+                    case MOVE -> {
+                        var position = buffer.get();
+                        apply = () -> {
+                            var held = unresolved.get(gameId);
+                            if (held != null)
+                                held.moved(position);
+                            else
+                                gameService.replayMoved(gameId, position);
+                        };
+                    }
+                    case DELETE -> apply = () -> {
+                        gameService.replayDeleted(gameId);
+                        unresolved.remove(gameId);
+                    };
+                    default -> {
+                        log.warn("Unknown journal record type {} in {} at {}; ignoring the rest", type, path, start);
+                        return new Replayed(records, start);
+                    }
+                }
+                var end = buffer.position();
+                check.reset();
+                check.update(buffer.duplicate().position(start).limit(end));
+                if (buffer.getInt() != (int) check.getValue()) {
+                    log.warn("Corrupt journal record in {} at {}; ignoring the rest", path, start);
+                    return new Replayed(records, start);
+                }
+                apply.run();
+                records++;
+            } catch (BufferUnderflowException | DateTimeException e) {
+                log.warn("Torn journal record in {} at {}; ignoring the rest", path, start);
+                return new Replayed(records, start);
+            }
+        }
+        return new Replayed(records, buffer.position());
+    }
+
+    /** Take a game out of memory as the records that rebuild it, joined by a player who does not exist. */
+    private UnresolvedGame holdBack(Game game, String playerId) {
+        var held = new UnresolvedGame(game.getId(), game.getName(), game.getCreatedAt());
+        for (var player : game.getPlayers())
+            held.joined(player.getId());
+        held.joined(playerId);
+        for (int i = 0; i < game.getMoveCount(); i++)
+            held.moved(game.positionOfMove(i));
+        gameService.replayDeleted(game.getId());
+        return held;
+    }
+
+    private static String getString(ByteBuffer buffer, boolean name) {
+        var length = name ? buffer.getShort() & 0xFFFF : buffer.get() & 0xFF;
+        if (name && length == NO_NAME)
+            return null;
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Segment or snapshot files, in index order. */
+    private List<Path> list(Pattern name) throws IOException {
+        var result = new ArrayList<Path>();
+        try (var files = Files.list(dir)) {
+            files.filter(path -> name.matcher(path.getFileName().toString()).matches()).forEach(result::add);
+        }
+        result.sort((a, b) -> Long.compare(indexOf(a), indexOf(b)));
+        return result;
+    }
+
+    /** The index in a segment or snapshot file name. */
+    private static long indexOf(Path file) {
+        var name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.indexOf('.')));
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve("journal-" + index + ".log");
+    }
+
+    private Path snapshotPath(long index) {
+        return dir.resolve("snapshot-" + index + ".bin");
+    }
+
+    /** A change that could not be journaled; the journal refuses changes until the next snapshot. */
+    public static class JournalUnavailableException extends RuntimeException {
+        public JournalUnavailableException(String m) {
+            super(m);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the live games bounded by what is being played rather than by all traffic so far: finished games move to
+ * the {@link GameArchive} once older than finished-ttl or beyond max-finished, and games still waiting for players
+ * after waiting-ttl are deleted.
+ */
+@Component
+public class GameRetention {
+
+    private static final Logger log = LoggerFactory.getLogger(GameRetention.class);
+
+    @Value("${game-retention.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${game-retention.finished-ttl-ms:600000}")
+    private long finishedTtlMs = 600_000;
+
+    @Value("${game-retention.max-finished:100000}")
+    private long maxFinished = 100_000;
+
+    @Value("${game-retention.waiting-ttl-ms:3600000}")
+    private long waitingTtlMs = 3_600_000;
+
+    @Value("${game-retention.sweep-interval-ms:10000}")
+    private long sweepIntervalMs = 10_000;
+
+    private final GameService gameService;
+    private ScheduledExecutorService sweeper;
+
+    public GameRetention(GameService gameService) {
+        this.gameService = gameService;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        if (sweepIntervalMs <= 0)
+            sweepIntervalMs = 10_000;
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "game-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null)
+            sweeper.shutdownNow();
+    }
+
+    void sweep() {
+        var now = System.currentTimeMillis();
+        try {
+            var archived = gameService.archiveFinished(now - finishedTtlMs, maxFinished);
+            var reclaimed = gameService.reclaimWaiting(now - waitingTtlMs);
+            if (archived > 0 || reclaimed > 0)
+                log.debug("Archived {} finished games, reclaimed {} abandoned waiting games", archived, reclaimed);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Game retention sweep failed; retrying next interval", e);
+        }
+    }
+}
@@ -2,93 +2,601 @@ package com.example.service;
 
 import com.example.model.Game;
 import com.example.model.Game.GameStatus;
+import com.example.model.GameState;
+import com.example.model.Player;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /** Service for managing game logic and state. */
 @Service
 public class GameService {
 
-    // In-memory storage for games
-    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+    // Power of two so a game id maps to a stripe with a mask
+    private static final int LOCK_STRIPES = 256;
+    private static final int ARCHIVE_BATCH = 1000;
+    // Games of batches waiting for a batch thread; callers cap the batches in progress well below this
+    private static final int BATCH_QUEUE = 4096;
+
+    // In-memory storage for games: objects on the heap, or packed records off it
+    private final GameStore games;
+    // Mutations of a game run under its stripe lock; reads go straight to the store
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    // Games per status, adjusted on every status transition
+    private final Map<GameStatus, LongAdder> statusCounts = new EnumMap<>(GameStatus.class);
+    // Bumped with every count change; only ever grows, so it versions the stats for conditional requests
+    private final LongAdder statsVersion = new LongAdder();
+    // Told about every join, move and deletion, under the game's lock so they see changes in order
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+    // Players the service moves for itself, by id: given the game on their turn, each picks its cell
+    private final Map<String, ToIntFunction<Game>> computerPlayers = new ConcurrentHashMap<>();
     private final PlayerService playerService;
+    // Where finished games go when they leave the map; null when there is none
+    private final GameArchive archive;
+    // Runs the games of a batch in parallel, off the common pool and off the request threads; when its queue is full
+    // a game's operations fail instead of queueing without bound
+    private final ExecutorService batchExecutor = batchExecutor();
 
     public GameService(PlayerService playerService) {
+        this(playerService, null);
+    }
+
+    public GameService(PlayerService playerService, GameArchive archive) {
+        this(playerService, archive, new HeapGameStore(archive != null && archive.isEnabled()));
+    }
+
+    @Autowired
+    public GameService(PlayerService playerService, GameArchive archive,
+            @Value("${game-store.off-heap:false}") boolean offHeap) {
+        // Finish order is only kept for archiving
+        this(playerService, archive, offHeap
+                ? new OffHeapGameStore(playerService, archive != null && archive.isEnabled())
+                : new HeapGameStore(archive != null && archive.isEnabled()));
+    }
+
+    GameService(PlayerService playerService, GameArchive archive, GameStore games) {
         this.playerService = playerService;
+        this.games = games;
+        this.archive = archive != null && archive.isEnabled() ? archive : null;
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new ReentrantLock();
+        for (var status : GameStatus.values())
+            statusCounts.put(status, new LongAdder());
+    }
+
+    @PreDestroy
+    void stop() {
+        batchExecutor.shutdownNow();
+    }
+
+    private static ExecutorService batchExecutor() {
+        var threads = Runtime.getRuntime().availableProcessors();
+        var count = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(BATCH_QUEUE), runnable -> {
+                    var thread = new Thread(runnable, "game-batch-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Idle between batches, so no threads are kept for them
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     /** Create a new game. */
     public Game createGame(String name) {
         var game = new Game(name);
-        games.put(game.getId(), game);
+        // Before the game is visible, so listeners see its creation ahead of any join
+        for (var listener : listeners)
+            listener.gameCreated(game);
+        // Under its lock, so a join arriving right away waits until the game is counted as WAITING
+        var lock = lockFor(game.getId());
+        lock.lock();
+        try {
+            add(game);
+        } finally {
+            lock.unlock();
+        }
         return game;
     }
 
+    /**
+     * Create a game with both players already in it: it only becomes visible once full, so a match never races
+     * with other joiners.
+     */
+    public Game createMatch(String name, Player first, Player second) {
+        var game = new Game(name);
+        for (var listener : listeners)
+            listener.gameCreated(game);
+        var lock = lockFor(game.getId());
+        lock.lock();
+        try {
+            add(game);
+            for (var player : List.of(first, second)) {
+                var before = game.getStatus();
+                game.addPlayer(player);
+                transitioned(before, game.getStatus());
+                changed(game, Change.JOINED);
+            }
+            // Stored as waiting by add
+            games.update(game, GameStatus.WAITING);
+            computerMoves(game);
+            return game;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(Game game) {
+        games.put(game);
+        entered(game.getStatus());
+    }
+
+    /** A live game, or else an archived one (a copy: finished games no longer change). */
     public Optional<Game> findById(String id) {
-        return Optional.ofNullable(games.get(id));
+        var game = games.get(id);
+        if (game != null || archive == null)
+            return Optional.ofNullable(game);
+        return archive.find(id);
+    }
+
+    /** The compact state of a live or archived game; read from the store without building the game where it can. */
+    public Optional<GameState> findState(String id) {
+        var lock = lockFor(id);
+        lock.lock();
+        try {
+            var state = games.state(id);
+            if (state != null || archive == null)
+                return Optional.ofNullable(state);
+            return archive.find(id).map(GameState::of);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Play the player's moves on the server: whenever it is their turn after a join or another player's move,
+     * {@code strategy} picks the cell (position 0-8) and the move is made in the same call.
+     */
+    public void addComputerPlayer(String playerId, ToIntFunction<Game> strategy) {
+        computerPlayers.put(playerId, strategy);
+    }
+
+    /**
+     * Apply {@code action} to a game while holding its lock, so it sees no half-applied change and no change
+     * slips in between it and the listeners. Empty if there is no such game (or the action returns null).
+     */
+    public <T> Optional<T> withGame(String gameId, Function<Game, T> action) {
+        var lock = lockFor(gameId);
+        lock.lock();
+        try {
+            var game = games.get(gameId);
+            if (game == null)
+                return archive == null ? Optional.empty() : archive.find(gameId).map(action);
+            return Optional.ofNullable(action.apply(game));
+        } finally {
+            lock.unlock();
+        }
     }
 
     public List<Game> findAll() {
-        return new ArrayList<>(games.values());
+        return games.values().collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /** One page of all games, oldest first; pass the returned cursor back to fetch the next page. */
+    public GamePage findAll(int limit, String cursor) {
+        var page = games.page(limit, cursor);
+        var result = new ArrayList<Game>(page.ids().size());
+        for (var id : page.ids()) {
+            var game = games.get(id);
+            if (game != null)
+                result.add(game);
+        }
+        return new GamePage(result, page.nextCursor());
+    }
+
+    /** All games, oldest first, produced lazily rather than copied into a list. */
+    public Stream<Game> streamAll() {
+        return games.ids().map(games::get).filter(Objects::nonNull);
+    }
+
+    /** One page of the compact states of all games, oldest first, as {@link #findAll(int, String)} pages them. */
+    public StatePage findAllStates(int limit, String cursor) {
+        var page = games.page(limit, cursor);
+        var result = new ArrayList<GameState>(page.ids().size());
+        for (var id : page.ids())
+            findState(id).ifPresent(result::add);
+        return new StatePage(result, page.nextCursor());
+    }
+
+    /** The compact states of all games, oldest first, produced lazily. */
+    public Stream<GameState> streamAllStates() {
+        return games.ids().map(id -> findState(id).orElse(null)).filter(Objects::nonNull);
     }
 
     public List<Game> findWaitingGames() {
-        return games.values().stream()
-                .filter(g -> g.getStatus() == GameStatus.WAITING)
-                .collect(Collectors.toList());
+        return games.waitingIds()
+                .map(games::get)
+                .filter(game -> game != null && game.getStatus() == GameStatus.WAITING)
+                .collect(Collectors.toCollection(ArrayList::new));
     }
 
     public Game joinGame(String gameId, String playerId) {
-        var game = findById(gameId).orElseThrow(() -> new GameNotFoundException("Game not found"));
-        var player = playerService.findById(playerId)
-                .orElseThrow(() -> new PlayerNotFoundException("Player not found"));
-
-        if (game.getPlayers().size() >= 2)
-            throw new InvalidGameStateException("Game is full");
-        if (game.getPlayers().contains(player))
-            throw new InvalidGameStateException("Already in game");
+        var lock = lockFor(gameId);
+        lock.lock();
+        try {
+            // Looked up under the lock: the store may hand out copies, which must not predate the last change
+            var game = findById(gameId).orElseThrow(() -> new GameNotFoundException("Game not found"));
+            var player = playerService.findById(playerId)
+                    .orElseThrow(() -> new PlayerNotFoundException("Player not found"));
+            // They only play the games started against them
+            if (playerService.isReserved(playerId))
+                throw new InvalidGameStateException("Computer players cannot join games");
+            if (game.getPlayers().size() >= 2)
+                throw new InvalidGameStateException("Game is full");
+            if (game.getPlayers().contains(player))
+                throw new InvalidGameStateException("Already in game");
 
-        game.addPlayer(player);
-        return game;
+            var before = game.getStatus();
+            game.addPlayer(player);
+            games.update(game, before);
+            transitioned(before, game.getStatus());
+            changed(game, Change.JOINED);
+            computerMoves(game);
+            return game;
+        } finally {
+            lock.unlock();
+        }
     }
 
     public Game makeMove(String gameId, String playerId, int row, int col) {
-        var game = findById(gameId).orElseThrow(() -> new GameNotFoundException("Game not found"));
-        var player = playerService.findById(playerId)
-                .orElseThrow(() -> new PlayerNotFoundException("Player not found"));
-
-        if (game.getStatus() != GameStatus.ACTIVE)
-            throw new InvalidGameStateException("Game not active");
-        if (!game.getCurrentPlayer().getId().equals(playerId))
-            throw new InvalidMoveException("Not your turn");
-
-        var position = row * 3 + col;
-        if (position < 0 || position > 8)
-            throw new InvalidMoveException("Invalid position");
-        if (game.getBoard().get(position) != null)
-            throw new InvalidMoveException("Cell occupied");
-
-        game.makeMove(player, position);
-        return game;
+        var lock = lockFor(gameId);
+        lock.lock();
+        try {
+            var game = findById(gameId).orElseThrow(() -> new GameNotFoundException("Game not found"));
+            var player = playerService.findById(playerId)
+                    .orElseThrow(() -> new PlayerNotFoundException("Player not found"));
+            // Owed when a restart cut in between a move and the reply to it
+            computerMoves(game);
+            if (game.getStatus() != GameStatus.ACTIVE)
+                throw new InvalidGameStateException("Game not active");
+            if (!game.getCurrentPlayer().getId().equals(playerId))
+                throw new InvalidMoveException("Not your turn");
+
+            var position = row * 3 + col;
+            if (position < 0 || position > 8)
+                throw new InvalidMoveException("Invalid position");
+            if (game.isOccupied(position))
+                throw new InvalidMoveException("Cell occupied");
+
+            var before = game.getStatus();
+            game.makeMove(player, position);
+            games.update(game, before);
+            transitioned(before, game.getStatus());
+            changed(game, Change.MOVED);
+            computerMoves(game);
+            return game;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Apply many joins and moves in one call. Operations on one game run in the order given, and operations on
+     * different games run in parallel. Each operation gets its own result, in the order of the operations, with
+     * the game's state right after it; a failed operation does not stop the later ones.
+     */
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        var byGame = new LinkedHashMap<String, List<Integer>>();
+        for (int i = 0; i < operations.size(); i++)
+            byGame.computeIfAbsent(operations.get(i).gameId(), id -> new ArrayList<>()).add(i);
+        var results = new BatchResult[operations.size()];
+        var games = new CompletableFuture<?>[byGame.size()];
+        var g = 0;
+        for (var indexes : byGame.values()) {
+            try {
+                games[g++] = CompletableFuture.runAsync(() -> {
+                    for (var i : indexes)
+                        results[i] = apply(operations.get(i));
+                }, batchExecutor);
+            } catch (RejectedExecutionException e) {
+                for (var i : indexes)
+                    results[i] = BatchResult.failed(BatchOutcome.FAILED, "Too many batches in progress");
+                games[g - 1] = CompletableFuture.completedFuture(null);
+            }
+        }
+        CompletableFuture.allOf(games).join();
+        return Arrays.asList(results);
+    }
+
+    private BatchResult apply(BatchOperation operation) {
+        if (operation.type() == null || operation.gameId() == null || operation.playerId() == null)
+            return BatchResult.failed(BatchOutcome.REJECTED, "Type, gameId and playerId are required");
+        // Held across the change and the read-back (the lock is reentrant), so the state is the one it produced
+        var lock = lockFor(operation.gameId());
+        lock.lock();
+        try {
+            Game game;
+            if (operation.type() == BatchOperationType.JOIN) {
+                game = joinGame(operation.gameId(), operation.playerId());
+            } else {
+                if (operation.row() == null || operation.col() == null || operation.row() < 0 || operation.row() > 2
+                        || operation.col() < 0 || operation.col() > 2)
+                    return BatchResult.failed(BatchOutcome.REJECTED, "Invalid position");
+                game = makeMove(operation.gameId(), operation.playerId(), operation.row(), operation.col());
+            }
+            return new BatchResult(BatchOutcome.OK, null, GameState.of(game));
+        } catch (GameNotFoundException | PlayerNotFoundException e) {
+            return BatchResult.failed(BatchOutcome.NOT_FOUND, e.getMessage());
+        } catch (InvalidGameStateException | InvalidMoveException e) {
+            return BatchResult.failed(BatchOutcome.REJECTED, e.getMessage());
+        } catch (RuntimeException e) {
+            // E.g. the store failing to write; the rest of the batch still gets its results
+            log.warn("Batch operation {} on game {} failed", operation.type(), operation.gameId(), e);
+            return BatchResult.failed(BatchOutcome.FAILED, e.toString());
+        } finally {
+            lock.unlock();
+        }
     }
 
     public GameStatsResponse getGameStats() {
-        var total = games.size();
-        var waiting = games.values().stream().filter(g -> g.getStatus() == GameStatus.WAITING).count();
-        var active = games.values().stream().filter(g -> g.getStatus() == GameStatus.ACTIVE).count();
-        var completed = games.values().stream().filter(g -> g.getStatus() == GameStatus.COMPLETED).count();
-        var draw = games.values().stream().filter(g -> g.getStatus() == GameStatus.DRAW).count();
-        return new GameStatsResponse(total, waiting, active, completed, draw);
+        var waiting = statusCounts.get(GameStatus.WAITING).sum();
+        var active = statusCounts.get(GameStatus.ACTIVE).sum();
+        var completed = statusCounts.get(GameStatus.COMPLETED).sum();
+        var draw = statusCounts.get(GameStatus.DRAW).sum();
+        if (archive != null) {
+            completed += archive.count(GameStatus.COMPLETED);
+            draw += archive.count(GameStatus.DRAW);
+        }
+        return new GameStatsResponse(waiting + active + completed + draw, waiting, active, completed, draw);
+    }
+
+    /** Aggregate version of {@link #getGameStats()}: changes whenever any of the counts may have. */
+    public long getStatsVersion() {
+        return statsVersion.sum();
     }
 
     public boolean deleteGame(String id) {
-        return games.remove(id) != null;
+        var lock = lockFor(id);
+        lock.lock();
+        try {
+            if (remove(id)) {
+                for (var listener : listeners)
+                    listener.gameDeleted(id);
+                return true;
+            }
+            if (archive == null || archive.remove(id) == null)
+                return false;
+            statsVersion.increment();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move finished games to the archive in the order they finished, while more than {@code maxFinished} are live
+     * or the oldest finished before {@code finishedBeforeMillis}. Each batch is on disk before it leaves the map;
+     * listeners see the archived games as deleted. Not to be run concurrently with itself. Returns how many moved.
+     */
+    public int archiveFinished(long finishedBeforeMillis, long maxFinished) throws IOException {
+        if (archive == null)
+            return 0;
+        var moved = 0;
+        while (true) {
+            var excess = statusCounts.get(GameStatus.COMPLETED).sum() + statusCounts.get(GameStatus.DRAW).sum()
+                    - maxFinished;
+            var batch = new ArrayList<Game>();
+            // The store's finish order: the games leave it as they are removed below
+            var finished = games.finishedIds().iterator();
+            while (batch.size() < ARCHIVE_BATCH && finished.hasNext()) {
+                var game = games.get(finished.next());
+                if (game == null)
+                    // Deleted since it was listed
+                    continue;
+                if (batch.size() >= excess && game.getUpdatedAtMillis() >= finishedBeforeMillis)
+                    break;
+                batch.add(game);
+            }
+            if (batch.isEmpty())
+                return moved;
+            // When this fails they are still live, and get another chance on the next run
+            archive.addAll(batch);
+            for (var game : batch) {
+                var lock = lockFor(game.getId());
+                lock.lock();
+                try {
+                    if (remove(game.getId())) {
+                        for (var listener : listeners)
+                            listener.gameDeleted(game.getId());
+                    } else {
+                        // Deleted while it was being archived
+                        archive.remove(game.getId());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            moved += batch.size();
+        }
+    }
+
+    /** Delete games still waiting for players that have not changed since {@code idleSinceMillis}. */
+    public int reclaimWaiting(long idleSinceMillis) {
+        var reclaimed = 0;
+        for (var id : (Iterable<String>) games.waitingIds()::iterator) {
+            var game = games.get(id);
+            if (game == null || game.getUpdatedAtMillis() >= idleSinceMillis)
+                continue;
+            var lock = lockFor(id);
+            lock.lock();
+            try {
+                // Re-checked under the lock: a player may have joined meanwhile
+                game = games.get(id);
+                if (game != null && game.getStatus() == GameStatus.WAITING
+                        && game.getUpdatedAtMillis() < idleSinceMillis && remove(id)) {
+                    for (var listener : listeners)
+                        listener.gameDeleted(id);
+                    reclaimed++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return reclaimed;
+    }
+
+    private boolean remove(String id) {
+        var removed = games.remove(id);
+        if (removed == null)
+            return false;
+        left(removed.getStatus());
+        return true;
+    }
+
+    // Replay of recorded events at startup, before requests are served: no locking, no listeners, no stats changes.
+    // Replay onto a snapshot may repeat changes the snapshot already holds, so each step tolerates that.
+
+    void replayCreated(String id, String name, LocalDateTime createdAt) {
+        // Already there when the game was created while the snapshot being replayed onto was taken
+        if (!games.contains(id))
+            add(new Game(id, name, createdAt));
+    }
+
+    /** Put back a game from a snapshot; several threads may restore different games at once. */
+    void restore(Game game) {
+        add(game);
+    }
+
+    boolean replayJoined(String gameId, String playerId) {
+        var game = games.get(gameId);
+        var player = playerService.findById(playerId).orElse(null);
+        if (game == null || player == null)
+            return false;
+        if (game.getPlayers().contains(player))
+            return true;
+        var before = game.getStatus();
+        if (!game.addPlayer(player))
+            return false;
+        games.update(game, before);
+        transitioned(before, game.getStatus());
+        return true;
+    }
+
+    boolean replayMoved(String gameId, int position) {
+        var game = games.get(gameId);
+        if (game == null)
+            return false;
+        var before = game.getStatus();
+        if (!game.replayMove(position))
+            return false;
+        games.update(game, before);
+        transitioned(before, game.getStatus());
+        return true;
+    }
+
+    boolean replayDeleted(String gameId) {
+        return remove(gameId);
+    }
+
+    /** Make the moves of computer players for as long as it is one's turn; under the game's lock. */
+    private void computerMoves(Game game) {
+        while (game.getStatus() == GameStatus.ACTIVE) {
+            var player = game.getCurrentPlayer();
+            var strategy = computerPlayers.get(player.getId());
+            if (strategy == null)
+                return;
+            var before = game.getStatus();
+            if (!game.makeMove(player, strategy.applyAsInt(game)))
+                throw new IllegalStateException("Computer player chose an illegal move");
+            games.update(game, before);
+            transitioned(before, game.getStatus());
+            changed(game, Change.MOVED);
+        }
+    }
+
+    private void changed(Game game, Change change) {
+        for (var listener : listeners)
+            listener.gameChanged(game, change);
+    }
+
+    // Status counts; callers hold the game's stripe lock (or own the game exclusively)
+    private void transitioned(GameStatus before, GameStatus after) {
+        if (before != after) {
+            left(before);
+            entered(after);
+        }
+    }
+
+    private void entered(GameStatus status) {
+        statusCounts.get(status).increment();
+        statsVersion.increment();
+    }
+
+    private void left(GameStatus status) {
+        statusCounts.get(status).decrement();
+        statsVersion.increment();
+    }
+
+    private Lock lockFor(String gameId) {
+        var h = gameId.hashCode();
+        return locks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    /** Observer of game changes. Called with the game's lock held, so implementations must not block. */
+    public interface GameListener {
+        /** A new game, just before it becomes visible to other threads. */
+        default void gameCreated(Game game) {
+        }
+
+        /** A player joined (the last of the game's players) or a move was made (the game's last move). */
+        void gameChanged(Game game, Change change);
+
+        /** The game left the live games: deleted, reclaimed while waiting, or moved to the archive. */
+        void gameDeleted(String gameId);
+    }
+
+    /** What a {@link GameListener#gameChanged} call reports. */
+    public enum Change {
+        JOINED, MOVED
     }
 
     public static class GameNotFoundException extends RuntimeException {
@@ -115,6 +623,33 @@ public class GameService {
         }
     }
 
+    public enum BatchOperationType {
+        JOIN, MOVE
+    }
+
+    /** A join, or a move to {@code row} and {@code col}, by the player in the game. */
+    public record BatchOperation(BatchOperationType type, String gameId, String playerId, Integer row, Integer col) {
+    }
+
+    /** FAILED is an unexpected error, after which the game may or may not have changed. */
+    public enum BatchOutcome {
+        OK, NOT_FOUND, REJECTED, FAILED
+    }
+
+    /** What one operation of a batch did: the game's state after it when OK, the reason otherwise. */
+    public record BatchResult(BatchOutcome outcome, String error, GameState game) {
+        static BatchResult failed(BatchOutcome outcome, String error) {
+            return new BatchResult(outcome, error, null);
+        }
+    }
+
+    /** One page of games; {@code nextCursor} is null on the last page. */
+    public record StatePage(List<GameState> games, String nextCursor) {
+    }
+
+    public record GamePage(List<Game> games, String nextCursor) {
+    }
+
     public record GameStatsResponse(long totalGames, long waitingGames, long activeGames, long completedGames,
             long drawGames) {
     }
@@ -0,0 +1,51 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Game.GameStatus;
+import com.example.model.GameState;
+import com.example.service.Cursors.Page;
+
+import java.util.stream.Stream;
+
+/**
+ * Where {@link GameService} keeps its live games, and the indexes over them: the waiting games, creation order and
+ * (when asked to keep it) finish order. Each store keeps them in its own terms. Changes to a game run under
+ * GameService's lock for it, so put, update and remove never race for one id; reads may run at any time.
+ */
+interface GameStore {
+
+    /** The game, or null. It may be a copy, whose changes only reach the store through {@link #update}. */
+    Game get(String id);
+
+    /** The game's compact state, or null; callers hold the game's lock. */
+    GameState state(String id);
+
+    boolean contains(String id);
+
+    /** Add a new game. */
+    void put(Game game);
+
+    /**
+     * Store the changes made to a game returned by {@link #get}, which had status {@code before}; a game no longer
+     * stored is ignored.
+     */
+    void update(Game game, GameStatus before);
+
+    /** Remove the game, returning it as it was, or null when there is none. */
+    Game remove(String id);
+
+    /** All games, in no particular order. */
+    Stream<Game> values();
+
+    /** Ids of the WAITING games, in no particular order. */
+    Stream<String> waitingIds();
+
+    /** Ids of all games, oldest first, walked lazily. */
+    Stream<String> ids();
+
+    /** One page of ids, oldest first; the cursor is the store's own. */
+    Page page(int limit, String cursor);
+
+    /** Ids of the finished games, oldest finish first, walked lazily; empty unless the store keeps finish order. */
+    Stream<String> finishedIds();
+}
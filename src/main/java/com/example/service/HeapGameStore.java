@@ -0,0 +1,112 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Game.GameStatus;
+import com.example.model.GameState;
+import com.example.service.Cursors.Page;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/** The games as objects in a map; {@link #get} returns the stored game itself, so updates are already in place. */
+final class HeapGameStore implements GameStore {
+
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private final Set<String> waiting = ConcurrentHashMap.newKeySet();
+    // Creation order, for stable paging and streaming of all games
+    private final CreationIndex creationIndex = new CreationIndex();
+    // Ids of finished games in the order they finished, oldest first; may hold removed ids. Null when not kept
+    private final Queue<String> finishedOrder;
+
+    HeapGameStore() {
+        this(false);
+    }
+
+    HeapGameStore(boolean keepFinishedOrder) {
+        finishedOrder = keepFinishedOrder ? new ConcurrentLinkedQueue<>() : null;
+    }
+
+    @Override
+    public Game get(String id) {
+        return games.get(id);
+    }
+
+    @Override
+    public GameState state(String id) {
+        var game = games.get(id);
+        return game == null ? null : GameState.of(game);
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return games.containsKey(id);
+    }
+
+    @Override
+    public void put(Game game) {
+        games.put(game.getId(), game);
+        creationIndex.add(game.getId(), game.getCreatedAt());
+        entered(game.getId(), game.getStatus());
+    }
+
+    @Override
+    public void update(Game game, GameStatus before) {
+        if (before == game.getStatus() || !games.containsKey(game.getId()))
+            return;
+        if (before == GameStatus.WAITING)
+            waiting.remove(game.getId());
+        entered(game.getId(), game.getStatus());
+    }
+
+    @Override
+    public Game remove(String id) {
+        var removed = games.remove(id);
+        if (removed != null) {
+            creationIndex.remove(id, removed.getCreatedAt());
+            waiting.remove(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public Stream<Game> values() {
+        return games.values().stream();
+    }
+
+    @Override
+    public Stream<String> waitingIds() {
+        return waiting.stream();
+    }
+
+    @Override
+    public Stream<String> ids() {
+        return creationIndex.ids();
+    }
+
+    @Override
+    public Page page(int limit, String cursor) {
+        return creationIndex.range(null, null, limit, cursor);
+    }
+
+    @Override
+    public Stream<String> finishedIds() {
+        if (finishedOrder == null)
+            return Stream.empty();
+        // Removed games leave their ids behind; drop those that reached the head
+        String head;
+        while ((head = finishedOrder.peek()) != null && !games.containsKey(head))
+            finishedOrder.remove(head);
+        return finishedOrder.stream();
+    }
+
+    private void entered(String id, GameStatus status) {
+        if (status == GameStatus.WAITING)
+            waiting.add(id);
+        else if (finishedOrder != null && (status == GameStatus.COMPLETED || status == GameStatus.DRAW))
+            finishedOrder.add(id);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Player;
+import com.example.service.GameService.InvalidGameStateException;
+import com.example.service.GameService.PlayerNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pairs players into new games without a waiting-list scan or join races. A player asking for a match either takes
+ * the ticket waiting in their skill bucket, and the game is created for both of them, or leaves a ticket there
+ * for the next player. Since every arrival pairs with a waiting ticket when there is one, a bucket never holds more
+ * than one, so each bucket's queue is a single slot updated with CAS, and each ticket is claimed at most once.
+ *
+ * Buckets split players by win rate when skill-buckets is above one. Tickets nobody claims expire after the
+ * ticket TTL, and finished tickets are forgotten after it, both by a background sweeper.
+ */
+@Service
+public class Matchmaker {
+
+    private static final String GAME_NAME = "Match";
+
+    @Value("${matchmaking.skill-buckets:1}")
+    private int skillBuckets = 1;
+
+    @Value("${matchmaking.ticket-ttl-ms:600000}")
+    private long ticketTtlMs = 600_000;
+
+    private final GameService gameService;
+    private final PlayerService playerService;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private AtomicReferenceArray<Ticket> waiting;
+    private ScheduledExecutorService sweeper;
+
+    public Matchmaker(GameService gameService, PlayerService playerService) {
+        this.gameService = gameService;
+        this.playerService = playerService;
+        waiting = new AtomicReferenceArray<>(skillBuckets);
+    }
+
+    @PostConstruct
+    void start() {
+        if (skillBuckets <= 0)
+            skillBuckets = 1;
+        if (ticketTtlMs <= 0)
+            ticketTtlMs = 600_000;
+        waiting = new AtomicReferenceArray<>(skillBuckets);
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "matchmaking-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var interval = Math.max(1, ticketTtlMs / 10);
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null)
+            sweeper.shutdownNow();
+    }
+
+    /**
+     * Match the player with whoever is waiting in their bucket, or wait for the next one. Returns the player's
+     * ticket: MATCHED with the new game's id, or WAITING. A player already waiting gets their existing ticket.
+     */
+    public MatchTicket match(String playerId) {
+        var player = playerService.findById(playerId)
+                .orElseThrow(() -> new PlayerNotFoundException("Player not found"));
+        if (playerService.isReserved(playerId))
+            throw new InvalidGameStateException("Computer players cannot be matched");
+        var bucket = bucketOf(player);
+        Ticket mine = null;
+        while (true) {
+            var other = waiting.get(bucket);
+            if (other == null) {
+                if (mine == null)
+                    mine = new Ticket(playerId);
+                if (waiting.compareAndSet(bucket, null, mine)) {
+                    tickets.put(mine.id, mine);
+                    return mine.view();
+                }
+            } else if (other.state.get() != MatchStatus.WAITING) {
+                // Cancelled or expired; clear it for everyone
+                waiting.compareAndSet(bucket, other, null);
+            } else if (other.playerId.equals(playerId)) {
+                return other.view();
+            } else if (waiting.compareAndSet(bucket, other, null) && other.claim()) {
+                // Ours alone now: no other thread can take it from the slot or cancel it
+                var opponent = playerService.findById(other.playerId).orElse(null);
+                if (opponent == null) {
+                    other.finish(MatchStatus.EXPIRED, null);
+                    continue;
+                }
+                Game game;
+                try {
+                    game = gameService.createMatch(GAME_NAME, opponent, player);
+                } catch (RuntimeException e) {
+                    // Not the opponent's doing: back in the queue if nobody took the slot meanwhile
+                    other.release();
+                    if (!waiting.compareAndSet(bucket, null, other))
+                        other.cancel(MatchStatus.EXPIRED);
+                    throw e;
+                }
+                other.finish(MatchStatus.MATCHED, game.getId());
+                if (mine == null)
+                    mine = new Ticket(playerId);
+                mine.claim();
+                mine.finish(MatchStatus.MATCHED, game.getId());
+                tickets.put(mine.id, mine);
+                return mine.view();
+            }
+        }
+    }
+
+    public Optional<MatchTicket> findTicket(String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId)).map(Ticket::view);
+    }
+
+    /** Withdraw a waiting ticket; the returned ticket tells whether it was still waiting (now CANCELLED). */
+    public Optional<MatchTicket> cancel(String ticketId) {
+        var ticket = tickets.get(ticketId);
+        if (ticket == null)
+            return Optional.empty();
+        ticket.cancel(MatchStatus.CANCELLED);
+        return Optional.of(ticket.view());
+    }
+
+    /** Expire tickets waiting longer than the TTL and forget finished ones older than it. */
+    void sweep() {
+        var cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ticketTtlMs);
+        for (var ticket : tickets.values()) {
+            if (ticket.changedAt - cutoff >= 0)
+                continue;
+            if (ticket.state.get() == MatchStatus.WAITING)
+                ticket.cancel(MatchStatus.EXPIRED);
+            else if (ticket.state.get() != MatchStatus.MATCHING)
+                tickets.remove(ticket.id, ticket);
+        }
+    }
+
+    private int bucketOf(Player player) {
+        var buckets = waiting.length();
+        return Math.min(buckets - 1, (int) (player.getStats().getWinRate() * buckets));
+    }
+
+    public enum MatchStatus {
+        WAITING,
+        // Claimed by the player it was matched with, whose game is being created; reported as WAITING
+        MATCHING,
+        MATCHED, CANCELLED, EXPIRED
+    }
+
+    /** A player's matchmaking request; {@code gameId} is set once MATCHED. */
+    public record MatchTicket(String ticketId, String playerId, MatchStatus status, String gameId) {
+    }
+
+    private static final class Ticket {
+        final String id = UUID.randomUUID().toString();
+        final String playerId;
+        final AtomicReference<MatchStatus> state = new AtomicReference<>(MatchStatus.WAITING);
+        volatile String gameId;
+        volatile long changedAt = System.nanoTime();
+
+        Ticket(String playerId) {
+            this.playerId = playerId;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(MatchStatus.WAITING, MatchStatus.MATCHING);
+        }
+
+        /** Back to WAITING after a claim whose game could not be created. */
+        void release() {
+            changedAt = System.nanoTime();
+            state.compareAndSet(MatchStatus.MATCHING, MatchStatus.WAITING);
+        }
+
+        void cancel(MatchStatus status) {
+            if (state.compareAndSet(MatchStatus.WAITING, status))
+                changedAt = System.nanoTime();
+        }
+
+        void finish(MatchStatus status, String gameId) {
+            this.gameId = gameId;
+            changedAt = System.nanoTime();
+            state.set(status);
+        }
+
+        MatchTicket view() {
+            var status = state.get();
+            return new MatchTicket(id, playerId, status == MatchStatus.MATCHING ? MatchStatus.WAITING : status,
+                    status == MatchStatus.MATCHED ? gameId : null);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.service;
+
+import com.example.service.Cursors.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inverted trigram index over lowercased player names for substring search, plus a sorted name index for
+ * prefix (autocomplete) search. Results come back in a stable order with an opaque cursor for the next page.
+ */
+class NameIndex {
+
+    private static final int GRAM = 3;
+    private static final char SEPARATOR = '\u0000';
+
+    /** Player ids containing one trigram, in id order, with a size counter (skip-list size() is linear). */
+    private static final class Posting {
+        final NavigableSet<String> ids = new ConcurrentSkipListSet<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    // id -> lowercased name, in id order so short queries can scan from a cursor
+    private final ConcurrentSkipListMap<String, String> namesById = new ConcurrentSkipListMap<>();
+    private final Map<String, Posting> postings = new ConcurrentHashMap<>();
+    // lowercased name + SEPARATOR + id, so equal names stay distinct and ordered by id
+    private final NavigableSet<String> prefixKeys = new ConcurrentSkipListSet<>();
+
+    /** Index (or re-index) a player's name. Callers serialize calls for the same id. */
+    void put(String id, String name) {
+        var lower = name.toLowerCase();
+        var old = namesById.put(id, lower);
+        if (lower.equals(old))
+            return;
+        if (old != null)
+            unindex(id, old);
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            var posting = postings.computeIfAbsent(lower.substring(i, i + GRAM), gram -> new Posting());
+            if (posting.ids.add(id))
+                posting.size.incrementAndGet();
+        }
+        prefixKeys.add(lower + SEPARATOR + id);
+    }
+
+    void remove(String id) {
+        var old = namesById.remove(id);
+        if (old != null)
+            unindex(id, old);
+    }
+
+    /** Ids whose name contains {@code term} (already lowercased and trimmed), in id order. */
+    Page contains(String term, int limit, String cursor) {
+        var after = Cursors.decode(cursor);
+        var result = new ArrayList<String>();
+        if (term.length() < GRAM) {
+            // Too short for a trigram; such terms are unselective, so a scan fills a page quickly
+            var candidates = after == null ? namesById : namesById.tailMap(after, false);
+            for (var entry : candidates.entrySet()) {
+                if (entry.getValue().contains(term) && add(result, entry.getKey(), limit))
+                    break;
+            }
+        } else {
+            // Drive from the rarest trigram of the term and verify each candidate against the full term
+            Posting rarest = null;
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                var posting = postings.get(term.substring(i, i + GRAM));
+                if (posting == null)
+                    return new Page(List.of(), null);
+                if (rarest == null || posting.size.get() < rarest.size.get())
+                    rarest = posting;
+            }
+            var candidates = after == null ? rarest.ids : rarest.ids.tailSet(after, false);
+            for (var id : candidates) {
+                var name = namesById.get(id);
+                if (name != null && name.contains(term) && add(result, id, limit))
+                    break;
+            }
+        }
+        return Cursors.page(result, limit);
+    }
+
+    /** Ids whose name starts with {@code term} (already lowercased and trimmed), in name order. */
+    Page startsWith(String term, int limit, String cursor) {
+        var after = Cursors.decode(cursor);
+        var candidates = after == null ? prefixKeys.tailSet(term, true) : prefixKeys.tailSet(after, false);
+        var keys = new ArrayList<String>();
+        for (var key : candidates) {
+            if (!key.startsWith(term) || add(keys, key, limit))
+                break;
+        }
+        var page = Cursors.page(keys, limit);
+        var ids = new ArrayList<String>(page.ids().size());
+        for (var key : page.ids())
+            ids.add(key.substring(key.lastIndexOf(SEPARATOR) + 1));
+        return new Page(ids, page.nextCursor());
+    }
+
+    private void unindex(String id, String lower) {
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            var posting = postings.get(lower.substring(i, i + GRAM));
+            if (posting != null && posting.ids.remove(id))
+                posting.size.decrementAndGet();
+        }
+        prefixKeys.remove(lower + SEPARATOR + id);
+    }
+
+    /** Collects up to limit + 1 items; the extra one only tells us there is a next page. */
+    private static boolean add(List<String> result, String item, int limit) {
+        result.add(item);
+        return result.size() > limit;
+    }
+}
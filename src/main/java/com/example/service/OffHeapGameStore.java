@@ -0,0 +1,579 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Game.GameStatus;
+import com.example.model.GameState;
+import com.example.model.Player;
+import com.example.service.Cursors.Page;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Games packed into fixed-size records in direct memory, so millions of live games are not millions of object
+ * graphs for the collector to trace: the heap holds a primitive id-to-slot index and a few large buffers whatever
+ * the game count. A record holds the game and player ids as UUID longs, the timestamps, and the board as the cells
+ * of its moves in order (four bits each), from which the masks, status, turn and winner follow.
+ *
+ * {@link #get} rebuilds a short-lived {@link Game} from the record, and {@link #update} writes one back; compact
+ * states and the indexes are read from the records without building a game. Records are read without locking: a
+ * sequence number per record, odd while it is being written, lets a reader detect a torn read and retry. Ids must be
+ * UUIDs, as the service's ids are.
+ *
+ * The indexes are primitive too, keyed by slot: a bitmap of the waiting games, and {@link SlotLog}s of creation and
+ * finish order whose entries carry the slot's generation, bumped whenever a new game takes the slot, so entries of
+ * removed games are told apart and compacted away.
+ */
+final class OffHeapGameStore implements GameStore {
+
+    static final int RECORD_BYTES = 128;
+    private static final int CHUNK_SHIFT = 16;
+    // Records per direct buffer; buffers are added as the store grows and freed slots are reused
+    private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+
+    // Record layout; longs first, so they are aligned for the sequence number's atomic access
+    private static final int SEQUENCE = 0;
+    private static final int ID_HIGH = 8;
+    private static final int ID_LOW = 16;
+    private static final int CREATED_SECONDS = 24;
+    private static final int UPDATED_MILLIS = 32;
+    private static final int MOVE_ORDER = 40;
+    // Two players of two longs each
+    private static final int PLAYERS = 48;
+    private static final int CREATED_NANOS = 80;
+    private static final int MOVE_COUNT = 84;
+    private static final int PLAYER_COUNT = 85;
+    private static final int IN_USE = 86;
+    private static final int NAME_LENGTH = 87;
+    private static final int GENERATION = 88;
+    private static final int NAME = 92;
+    private static final int MAX_INLINE_NAME = RECORD_BYTES - NAME;
+    private static final int NO_NAME = 0xFF;
+    private static final int LONG_NAME = 0xFE;
+
+    private static final int WORDS_PER_CHUNK = CHUNK_RECORDS / 64;
+    // Log entries read per lock hold when walking one lazily
+    private static final int WALK_BATCH = 256;
+
+    private static final VarHandle SEQUENCE_NUMBER =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final PlayerService playerService;
+    // Slot allocation and index changes take the write lock; lookups share the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final UuidIndex index = new UuidIndex();
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private volatile int slotsUsed;
+    private int[] free = new int[1024];
+    private int freeCount;
+    // Names too long for their record, by slot
+    private final Map<Integer, String> longNames = new ConcurrentHashMap<>();
+    // One bit per slot, set while the game in it is waiting; a word array per chunk
+    private volatile AtomicLongArray[] waiting = new AtomicLongArray[0];
+    // Under the write lock, and read under either lock
+    private final SlotLog created = new SlotLog();
+    private final SlotLog finished;
+    private int liveCount;
+    private int finishedCount;
+
+    OffHeapGameStore(PlayerService playerService) {
+        this(playerService, false);
+    }
+
+    OffHeapGameStore(PlayerService playerService, boolean keepFinishedOrder) {
+        this.playerService = playerService;
+        finished = keepFinishedOrder ? new SlotLog() : null;
+    }
+
+    @Override
+    public Game get(String id) {
+        var uuid = UuidIndex.uuid(id);
+        if (uuid == null)
+            return null;
+        var slot = slotOf(uuid);
+        return slot < 0 ? null : read(slot, uuid);
+    }
+
+    @Override
+    public GameState state(String id) {
+        var uuid = UuidIndex.uuid(id);
+        if (uuid == null)
+            return null;
+        var slot = slotOf(uuid);
+        if (slot < 0)
+            return null;
+        var chunk = chunks[slot >>> CHUNK_SHIFT];
+        var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+        var players = new long[4];
+        while (true) {
+            var sequence = (long) SEQUENCE_NUMBER.getAcquire(chunk, base + SEQUENCE);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            var inUse = chunk.get(base + IN_USE) != 0;
+            var high = chunk.getLong(base + ID_HIGH);
+            var low = chunk.getLong(base + ID_LOW);
+            var order = chunk.getLong(base + MOVE_ORDER);
+            var moves = chunk.get(base + MOVE_COUNT);
+            var playerCount = chunk.get(base + PLAYER_COUNT);
+            for (int i = 0; i < players.length; i++)
+                players[i] = chunk.getLong(base + PLAYERS + 8 * i);
+            VarHandle.acquireFence();
+            if ((long) SEQUENCE_NUMBER.getOpaque(chunk, base + SEQUENCE) != sequence)
+                continue;
+
+            if (!inUse || high != uuid.getMostSignificantBits() || low != uuid.getLeastSignificantBits())
+                return null;
+            return GameState.of(id, playerCount < 1 ? null : new UUID(players[0], players[1]).toString(),
+                    playerCount < 2 ? null : new UUID(players[2], players[3]).toString(), order, moves);
+        }
+    }
+
+    @Override
+    public boolean contains(String id) {
+        var uuid = UuidIndex.uuid(id);
+        return uuid != null && slotOf(uuid) >= 0;
+    }
+
+    @Override
+    public void put(Game game) {
+        var id = uuidOf(game.getId());
+        var players = playerIds(game);
+        var name = game.getName() == null ? null : game.getName().getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            var slot = (int) index.get(id);
+            if (slot >= 0) {
+                // Stored already: rewritten in place, keeping its place in the logs
+                write(slot, game, players, id, name);
+                setWaiting(slot, game.getStatus() == GameStatus.WAITING);
+                return;
+            }
+            slot = freeCount > 0 ? free[--freeCount] : newSlot();
+            var chunk = chunks[slot >>> CHUNK_SHIFT];
+            var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+            var generation = chunk.getInt(base + GENERATION) + 1;
+            chunk.putInt(base + GENERATION, generation);
+            write(slot, game, players, id, name);
+            index.put(game.getId(), slot);
+            liveCount++;
+            if (created.size() >= 2 * liveCount + 1024)
+                created.compact(this::isLive);
+            var createdAt = game.getCreatedAt();
+            created.add(createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + createdAt.getNano(),
+                    SlotLog.entry(slot, generation));
+            if (game.getStatus() == GameStatus.WAITING)
+                setWaiting(slot, true);
+            else if (isFinished(game.getStatus()))
+                finished(slot, game.getUpdatedAtMillis());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(Game game, GameStatus before) {
+        var id = UuidIndex.uuid(game.getId());
+        if (id == null)
+            return;
+        var slot = slotOf(id);
+        if (slot < 0)
+            return;
+        write(slot, game, playerIds(game), null, null);
+        var after = game.getStatus();
+        if (before == GameStatus.WAITING && after != GameStatus.WAITING)
+            setWaiting(slot, false);
+        if (isFinished(after) && !isFinished(before)) {
+            lock.writeLock().lock();
+            try {
+                // Still the same game: it was not removed meanwhile, since removal takes the game's lock too
+                finished(slot, game.getUpdatedAtMillis());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Game remove(String id) {
+        var uuid = UuidIndex.uuid(id);
+        if (uuid == null)
+            return null;
+        var slot = slotOf(uuid);
+        if (slot < 0)
+            return null;
+        var game = read(slot, uuid);
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+            setWaiting(slot, false);
+            liveCount--;
+            if (game != null && isFinished(game.getStatus()) && finished != null)
+                finishedCount--;
+            var chunk = chunks[slot >>> CHUNK_SHIFT];
+            var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+            var sequence = beginWrite(chunk, base);
+            chunk.put(base + IN_USE, (byte) 0);
+            SEQUENCE_NUMBER.setRelease(chunk, base + SEQUENCE, sequence + 2);
+            longNames.remove(slot);
+            if (freeCount == free.length)
+                free = Arrays.copyOf(free, freeCount * 2);
+            free[freeCount++] = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return game;
+    }
+
+    @Override
+    public Stream<Game> values() {
+        return IntStream.range(0, slotsUsed).mapToObj(slot -> read(slot, null)).filter(Objects::nonNull);
+    }
+
+    @Override
+    public Stream<String> waitingIds() {
+        var bits = waiting;
+        return IntStream.range(0, bits.length * WORDS_PER_CHUNK)
+                .flatMap(word -> setBits(bits[word / WORDS_PER_CHUNK].get(word % WORDS_PER_CHUNK), word * 64))
+                .mapToObj(this::idIn)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Stream<String> ids() {
+        return walk(created);
+    }
+
+    @Override
+    public Page page(int limit, String cursor) {
+        var after = decode(cursor);
+        var ids = new ArrayList<String>(Math.min(limit, 1024));
+        var last = new String[1];
+        var more = new boolean[1];
+        read(created, () -> {
+            for (int i = after == null ? 0 : created.after(after[0], after[1]); i < created.size(); i++) {
+                var entry = created.entry(i);
+                if (!isLive(entry))
+                    continue;
+                if (ids.size() == limit) {
+                    more[0] = true;
+                    break;
+                }
+                ids.add(idAt(SlotLog.slotOf(entry)));
+                last[0] = created.key(i) + "|" + entry;
+            }
+        });
+        return new Page(ids, more[0] ? Cursors.encode(last[0]) : null);
+    }
+
+    @Override
+    public Stream<String> finishedIds() {
+        return finished == null ? Stream.empty() : walk(finished);
+    }
+
+    /** Direct memory taken by the records, for sizing. */
+    long capacityBytes() {
+        return (long) chunks.length * CHUNK_RECORDS * RECORD_BYTES;
+    }
+
+    private int slotOf(UUID id) {
+        lock.readLock().lock();
+        try {
+            return (int) index.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Under the write lock
+    private int newSlot() {
+        var slot = slotsUsed;
+        if (slot == chunks.length * CHUNK_RECORDS) {
+            var grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] =
+                    ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_BYTES).order(ByteOrder.nativeOrder());
+            var grownWaiting = Arrays.copyOf(waiting, waiting.length + 1);
+            grownWaiting[waiting.length] = new AtomicLongArray(WORDS_PER_CHUNK);
+            waiting = grownWaiting;
+            chunks = grown;
+        }
+        slotsUsed = slot + 1;
+        return slot;
+    }
+
+    /**
+     * Write the game's changing fields to its record, plus its identity ({@code id} and {@code name}) when the id
+     * is given. Writers of a record are serialized by the caller, so only readers need the sequence number.
+     */
+    private void write(int slot, Game game, long[] players, UUID id, byte[] name) {
+        var chunk = chunks[slot >>> CHUNK_SHIFT];
+        var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+        var sequence = beginWrite(chunk, base);
+        if (id != null) {
+            chunk.putLong(base + ID_HIGH, id.getMostSignificantBits());
+            chunk.putLong(base + ID_LOW, id.getLeastSignificantBits());
+            chunk.putLong(base + CREATED_SECONDS, game.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            chunk.putInt(base + CREATED_NANOS, game.getCreatedAt().getNano());
+            if (name == null) {
+                chunk.put(base + NAME_LENGTH, (byte) NO_NAME);
+            } else if (name.length <= MAX_INLINE_NAME) {
+                chunk.put(base + NAME_LENGTH, (byte) name.length);
+                chunk.put(base + NAME, name);
+            } else {
+                chunk.put(base + NAME_LENGTH, (byte) LONG_NAME);
+                longNames.put(slot, game.getName());
+            }
+            chunk.put(base + IN_USE, (byte) 1);
+        }
+        chunk.putLong(base + UPDATED_MILLIS, game.getUpdatedAtMillis());
+        var moves = game.getMoveCount();
+        var order = 0L;
+        for (int i = 0; i < moves; i++)
+            order |= (long) game.positionOfMove(i) << (4 * i);
+        chunk.putLong(base + MOVE_ORDER, order);
+        chunk.put(base + MOVE_COUNT, (byte) moves);
+        for (int i = 0; i < players.length; i++)
+            chunk.putLong(base + PLAYERS + 8 * i, players[i]);
+        chunk.put(base + PLAYER_COUNT, (byte) (players.length / 2));
+        SEQUENCE_NUMBER.setRelease(chunk, base + SEQUENCE, sequence + 2);
+    }
+
+    private void setWaiting(int slot, boolean set) {
+        var words = waiting[slot >>> CHUNK_SHIFT];
+        var word = (slot & (CHUNK_RECORDS - 1)) >>> 6;
+        var bit = 1L << (slot & 63);
+        long current;
+        do {
+            current = words.get(word);
+        } while (!words.compareAndSet(word, current, set ? current | bit : current & ~bit));
+    }
+
+    // Under the write lock
+    private void finished(int slot, long finishedAtMillis) {
+        if (finished == null)
+            return;
+        finishedCount++;
+        if (finished.size() >= 2 * finishedCount + 1024)
+            finished.compact(this::isLive);
+        var chunk = chunks[slot >>> CHUNK_SHIFT];
+        var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+        finished.add(finishedAtMillis, SlotLog.entry(slot, chunk.getInt(base + GENERATION)));
+    }
+
+    private static boolean isFinished(GameStatus status) {
+        return status == GameStatus.COMPLETED || status == GameStatus.DRAW;
+    }
+
+    /** Whether the entry's game is still in its slot; under either lock, which every change of that holds. */
+    private boolean isLive(long entry) {
+        var slot = SlotLog.slotOf(entry);
+        var chunk = chunks[slot >>> CHUNK_SHIFT];
+        var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+        return chunk.get(base + IN_USE) != 0 && chunk.getInt(base + GENERATION) == (int) entry;
+    }
+
+    /** The id of the game in the slot; under either lock, so it is not being replaced. */
+    private String idAt(int slot) {
+        var chunk = chunks[slot >>> CHUNK_SHIFT];
+        var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+        return new UUID(chunk.getLong(base + ID_HIGH), chunk.getLong(base + ID_LOW)).toString();
+    }
+
+    /** The id of the game in the slot, or null when it is free; without locking. */
+    private String idIn(int slot) {
+        var chunk = chunks[slot >>> CHUNK_SHIFT];
+        var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+        while (true) {
+            var sequence = (long) SEQUENCE_NUMBER.getAcquire(chunk, base + SEQUENCE);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            var inUse = chunk.get(base + IN_USE) != 0;
+            var high = chunk.getLong(base + ID_HIGH);
+            var low = chunk.getLong(base + ID_LOW);
+            VarHandle.acquireFence();
+            if ((long) SEQUENCE_NUMBER.getOpaque(chunk, base + SEQUENCE) == sequence)
+                return inUse ? new UUID(high, low).toString() : null;
+        }
+    }
+
+    private static IntStream setBits(long word, int first) {
+        if (word == 0)
+            return IntStream.empty();
+        return IntStream.range(0, 64).filter(bit -> (word & 1L << bit) != 0).map(bit -> first + bit);
+    }
+
+    /** Run {@code action} on the log sorted: under the read lock, or the write lock when it must sort first. */
+    private void read(SlotLog log, Runnable action) {
+        lock.readLock().lock();
+        try {
+            if (log.isSorted()) {
+                action.run();
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            log.sort();
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** The live ids of the log in order, a batch per lock hold, so removals can run between batches. */
+    private Stream<String> walk(SlotLog log) {
+        var walk = new Iterator<String>() {
+            final ArrayDeque<String> batch = new ArrayDeque<>();
+            long lastKey;
+            long lastEntry;
+            boolean started;
+            boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                while (batch.isEmpty() && !exhausted)
+                    read(log, this::fill);
+                return !batch.isEmpty();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return batch.poll();
+            }
+
+            private void fill() {
+                var i = started ? log.after(lastKey, lastEntry) : 0;
+                var end = Math.min(log.size(), i + WALK_BATCH);
+                for (; i < end; i++) {
+                    var entry = log.entry(i);
+                    if (isLive(entry))
+                        batch.add(idAt(SlotLog.slotOf(entry)));
+                    lastKey = log.key(i);
+                    lastEntry = entry;
+                    started = true;
+                }
+                exhausted = i >= log.size();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(walk, Spliterator.ORDERED), false);
+    }
+
+    /** The position a cursor resumes after, as {key, entry}, or null for the first page. */
+    private static long[] decode(String cursor) {
+        var key = Cursors.decode(cursor);
+        if (key == null)
+            return null;
+        var separator = key.indexOf('|');
+        try {
+            return new long[] { Long.parseLong(key.substring(0, separator)), Long.parseLong(key.substring(separator + 1)) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /** Mark the record as being written; returns the sequence number it had. */
+    private static long beginWrite(ByteBuffer chunk, int base) {
+        var sequence = (long) SEQUENCE_NUMBER.getOpaque(chunk, base + SEQUENCE);
+        SEQUENCE_NUMBER.setOpaque(chunk, base + SEQUENCE, sequence + 1);
+        // Readers must see the odd number before any of the changes
+        VarHandle.storeStoreFence();
+        return sequence;
+    }
+
+    /** The game in the slot, or null when it is free or holds another game than {@code expected} (if given). */
+    private Game read(int slot, UUID expected) {
+        var chunk = chunks[slot >>> CHUNK_SHIFT];
+        var base = (slot & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+        var nameBytes = new byte[MAX_INLINE_NAME];
+        while (true) {
+            var sequence = (long) SEQUENCE_NUMBER.getAcquire(chunk, base + SEQUENCE);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            var inUse = chunk.get(base + IN_USE) != 0;
+            var high = chunk.getLong(base + ID_HIGH);
+            var low = chunk.getLong(base + ID_LOW);
+            var createdSeconds = chunk.getLong(base + CREATED_SECONDS);
+            var createdNanos = chunk.getInt(base + CREATED_NANOS);
+            var updatedAtMillis = chunk.getLong(base + UPDATED_MILLIS);
+            var order = chunk.getLong(base + MOVE_ORDER);
+            var moves = chunk.get(base + MOVE_COUNT);
+            var playerCount = chunk.get(base + PLAYER_COUNT);
+            var players = new long[4];
+            for (int i = 0; i < players.length; i++)
+                players[i] = chunk.getLong(base + PLAYERS + 8 * i);
+            var nameLength = chunk.get(base + NAME_LENGTH) & 0xFF;
+            if (nameLength <= MAX_INLINE_NAME)
+                chunk.get(base + NAME, nameBytes, 0, nameLength);
+            var longName = nameLength == LONG_NAME ? longNames.get(slot) : null;
+            // Everything above must be read before the sequence number is checked again
+            VarHandle.acquireFence();
+            if ((long) SEQUENCE_NUMBER.getOpaque(chunk, base + SEQUENCE) != sequence)
+                continue;
+
+            if (!inUse || expected != null
+                    && (high != expected.getMostSignificantBits() || low != expected.getLeastSignificantBits()))
+                return null;
+            var name = nameLength == NO_NAME ? null
+                    : nameLength == LONG_NAME ? longName
+                    : new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8);
+            var game = new Game(new UUID(high, low).toString(), name,
+                    LocalDateTime.ofEpochSecond(createdSeconds, createdNanos, ZoneOffset.UTC));
+            for (int i = 0; i < playerCount; i++)
+                game.addPlayer(playerService.findOrStandIn(new UUID(players[2 * i], players[2 * i + 1]).toString()));
+            for (int i = 0; i < moves; i++)
+                game.replayMove((int) (order >>> (4 * i) & 0xF));
+            game.setUpdatedAtMillis(updatedAtMillis);
+            return game;
+        }
+    }
+
+    /** The players' ids as UUID longs, two per player; checked before any write begins. */
+    private static long[] playerIds(Game game) {
+        List<Player> players = game.getPlayers();
+        var ids = new long[2 * players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            var id = uuidOf(players.get(i).getId());
+            ids[2 * i] = id.getMostSignificantBits();
+            ids[2 * i + 1] = id.getLeastSignificantBits();
+        }
+        return ids;
+    }
+
+    private static UUID uuidOf(String id) {
+        var uuid = UuidIndex.uuid(id);
+        if (uuid == null)
+            throw new IllegalArgumentException("Off-heap game store needs UUID ids: " + id);
+        return uuid;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.service;
+
+import com.example.model.PlayerStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk creation of players from a stream of records, for migrations. Records are taken in chunks and each chunk is
+ * validated and inserted on a worker thread, several chunks at once; the reader waits while twice as many chunks
+ * as there are workers are queued or running, so memory stays bounded however long the input. Each record is
+ * checked once: name and email as for a single create, then the email is reserved in the player index, which
+ * rejects emails already taken, whether by an earlier player or earlier in the same import. The reader also waits
+ * while the write-behind backlog is full, so an import runs no faster than the database takes the players.
+ *
+ * A record with an id, as every exported one has, keeps that id, its creation time and its stats, so an export
+ * imports back as the same players; an id already taken counts as a duplicate. A record without one becomes a new
+ * player with empty stats.
+ */
+@Service
+public class PlayerImporter {
+
+    // Same rules as the create request
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_ERRORS = 100;
+
+    @Value("${player-import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${player-import.threads:0}")
+    private int threads = 0;
+
+    private final PlayerService playerService;
+    private final PlayerWriteBehind writeBehind;
+    private ExecutorService workers;
+
+    public PlayerImporter(PlayerService playerService, PlayerWriteBehind writeBehind) {
+        this.playerService = playerService;
+        this.writeBehind = writeBehind;
+    }
+
+    @PostConstruct
+    void start() {
+        if (chunkSize <= 0)
+            chunkSize = 1000;
+        if (threads <= 0)
+            threads = Runtime.getRuntime().availableProcessors();
+        var count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "player-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (workers != null)
+            workers.shutdownNow();
+    }
+
+    /** Add a player for each valid record with a new email (and id); returns what became of the records. */
+    public ImportResult importAll(Iterator<PlayerRecord> records) throws InterruptedException {
+        var tally = new Tally();
+        // One permit per chunk queued or running
+        var permits = new Semaphore(threads * 2);
+        try {
+            var chunk = new ArrayList<PlayerRecord>(chunkSize);
+            while (records.hasNext()) {
+                chunk.add(records.next());
+                if (chunk.size() == chunkSize) {
+                    submit(chunk, permits, tally);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty())
+                submit(chunk, permits, tally);
+        } finally {
+            // Wait for every chunk, also when reading failed midway
+            permits.acquireUninterruptibly(threads * 2);
+        }
+        return new ImportResult(tally.imported.sum(), tally.invalid.sum(), tally.duplicates.sum(),
+                List.copyOf(tally.errors));
+    }
+
+    private void submit(List<PlayerRecord> chunk, Semaphore permits, Tally tally) throws InterruptedException {
+        writeBehind.awaitRoom();
+        permits.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    for (var record : chunk)
+                        insert(record, tally);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void insert(PlayerRecord record, Tally tally) {
+        var problem = record.error();
+        if (problem == null)
+            problem = validate(record.id(), record.name(), record.email(), record.stats());
+        if (problem != null) {
+            tally.invalid.increment();
+            tally.error(record.line(), problem);
+            return;
+        }
+        try {
+            if (record.id() == null)
+                playerService.createPlayer(record.name().strip(), record.email());
+            else
+                playerService.importPlayer(record.id(), record.name().strip(), record.email(), record.createdAt(),
+                        record.stats());
+            tally.imported.increment();
+        } catch (IllegalArgumentException e) {
+            tally.duplicates.increment();
+            if (record.id() != null && playerService.findById(record.id()).isPresent())
+                tally.error(record.line(), "Id already taken: " + record.id());
+            else
+                tally.error(record.line(), "Email already taken: " + record.email());
+        }
+    }
+
+    private static String validate(String id, String name, String email, PlayerStats stats) {
+        if (id != null && !isUuid(id))
+            return "Player id must be a UUID";
+        if (name == null || name.isBlank())
+            return "Player name is required";
+        if (name.strip().length() > MAX_NAME_LENGTH)
+            return "Player name must be between 1 and " + MAX_NAME_LENGTH + " characters";
+        if (email == null || !EMAIL.matcher(email).matches())
+            return "Please provide a valid email address";
+        if (email.toLowerCase().endsWith(PlayerService.RESERVED_EMAIL_DOMAIN))
+            return "Email domain is reserved";
+        return stats == null ? null : validate(stats);
+    }
+
+    // Rankings and win rates assume these hold, as they do for stats the games built
+    private static String validate(PlayerStats stats) {
+        if (stats.getGamesPlayed() < 0 || stats.getGamesWon() < 0 || stats.getGamesLost() < 0
+                || stats.getGamesDrawn() < 0 || stats.getTotalMoves() < 0)
+            return "Stats must not be negative";
+        if (stats.getGamesWon() > stats.getGamesPlayed())
+            return "Games won must not exceed games played";
+        if (stats.getGamesWon() + stats.getGamesLost() + stats.getGamesDrawn() != stats.getGamesPlayed())
+            return "Games won, lost and drawn must add up to games played";
+        return null;
+    }
+
+    private static boolean isUuid(String id) {
+        try {
+            return UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * One input record; {@code error} is set when it could not even be parsed. {@code id}, {@code createdAt} and
+     * {@code stats} are those of an exported player, each null when not given.
+     */
+    public record PlayerRecord(long line, String id, String name, String email, LocalDateTime createdAt,
+            PlayerStats stats, String error) {
+        public static PlayerRecord of(long line, String name, String email) {
+            return new PlayerRecord(line, null, name, email, null, null, null);
+        }
+
+        public static PlayerRecord of(long line, String id, String name, String email, LocalDateTime createdAt,
+                PlayerStats stats) {
+            return new PlayerRecord(line, id, name, email, createdAt, stats, null);
+        }
+
+        public static PlayerRecord unreadable(long line, String error) {
+            return new PlayerRecord(line, null, null, null, null, null, error);
+        }
+    }
+
+    /** Counts of the records by what became of them, with the first errors by input line. */
+    public record ImportResult(long imported, long invalid, long duplicates, List<String> errors) {
+    }
+
+    private static final class Tally {
+        final LongAdder imported = new LongAdder();
+        final LongAdder invalid = new LongAdder();
+        final LongAdder duplicates = new LongAdder();
+        final Queue<String> errors = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errorCount = new AtomicInteger();
+
+        void error(long line, String message) {
+            if (errorCount.getAndIncrement() < MAX_ERRORS)
+                errors.add("Line " + line + ": " + message);
+        }
+    }
+}
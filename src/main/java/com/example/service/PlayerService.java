@@ -2,76 +2,251 @@ package com.example.service;
 
 import com.example.model.Player;
 import com.example.model.PlayerStats;
+import com.example.service.Cursors.Page;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 @Service
 public class PlayerService {
 
+    /** Email domain of the players the server plays as (see {@link #reservePlayer}); nobody else may use it. */
+    public static final String RESERVED_EMAIL_DOMAIN = "@computer.invalid";
+
     // In-memory storage (can be replaced with repository for persistence)
     private final Map<String, Player> players = new ConcurrentHashMap<>();
+    // Secondary index email -> player id; putIfAbsent on it is what reserves an email
+    private final Map<String, String> playerIdsByEmail = new ConcurrentHashMap<>();
+    private final NameIndex nameIndex = new NameIndex();
+    private final CreationIndex creationIndex = new CreationIndex();
+    // Ranking indexes, re-ranked through the PlayerStats change listener
+    private final RankingIndex byWinRate = new RankingIndex(
+            stats -> stats.getGamesPlayed() > 0, PlayerStats::getWinRate);
+    private final RankingIndex byGamesPlayed = new RankingIndex(
+            stats -> true, PlayerStats::getGamesPlayed);
+    private final RankingIndex byEfficiency = new RankingIndex(
+            stats -> stats.getGamesWon() > 0, PlayerStats::getEfficiency);
+    // Bumped by every player or stats change; only ever grows, so it versions the leaderboards
+    private final LongAdder version = new LongAdder();
+    // Told about every change after it is applied in memory, e.g. to persist it
+    private final List<PlayerListener> listeners = new CopyOnWriteArrayList<>();
+    // Players the server plays as: never deleted or changed through the API, and never ranked
+    private final Set<String> reservedIds = ConcurrentHashMap.newKeySet();
 
     /** Create a new player with the given name and email. */
     public Player createPlayer(String name, String email) {
-        if (findByEmail(email).isPresent()) {
-            throw new IllegalArgumentException("Player with this email already exists");
+        checkNotReserved(email);
+        var player = new Player(name, email);
+        add(player);
+        statsChanged(player);
+        return player;
+    }
+
+    /**
+     * Add a player exported from elsewhere, keeping its id and, when given, its creation time and stats; otherwise
+     * as {@link #createPlayer}. Throws IllegalArgumentException when the id or the email is taken.
+     */
+    public Player importPlayer(String id, String name, String email, LocalDateTime createdAt, PlayerStats stats) {
+        checkNotReserved(email);
+        var player = new Player(name, email);
+        player.setId(id);
+        if (createdAt != null) {
+            player.setCreatedAt(createdAt);
+        }
+        if (stats != null) {
+            player.setStats(stats);
+        }
+        add(player);
+        statsChanged(player);
+        return player;
+    }
+
+    /**
+     * The server's own player with the given email (in {@link #RESERVED_EMAIL_DOMAIN}), created unless it was
+     * restored already. It cannot be deleted or updated, and stays off the rankings.
+     */
+    public Player reservePlayer(String name, String email) {
+        var existing = findByEmail(email);
+        if (existing.isPresent()) {
+            var player = existing.get();
+            reservedIds.add(player.getId());
+            unrank(player.getId());
+            version.increment();
+            return player;
         }
         var player = new Player(name, email);
-        players.put(player.getId(), player);
+        reservedIds.add(player.getId());
+        add(player);
+        statsChanged(player);
         return player;
     }
 
+    /** Whether the player is one the server plays as. */
+    public boolean isReserved(String id) {
+        return reservedIds.contains(id);
+    }
+
+    private static void checkNotReserved(String email) {
+        if (email != null && email.toLowerCase().endsWith(RESERVED_EMAIL_DOMAIN)) {
+            throw new IllegalArgumentException("Email domain is reserved");
+        }
+    }
+
+    /** Put back a previously persisted player as is, without notifying listeners. */
+    public void restore(Player player) {
+        if (player.getStats() == null) {
+            player.setStats(new PlayerStats());
+        }
+        add(player);
+        rank(player);
+        version.increment();
+    }
+
+    public void addListener(PlayerListener listener) {
+        listeners.add(listener);
+    }
+
+    private void add(Player player) {
+        if (playerIdsByEmail.putIfAbsent(player.getEmail(), player.getId()) != null) {
+            throw new IllegalArgumentException("Player with this email already exists");
+        }
+        if (players.putIfAbsent(player.getId(), player) != null) {
+            playerIdsByEmail.remove(player.getEmail(), player.getId());
+            throw new IllegalArgumentException("Player with this id already exists");
+        }
+        nameIndex.put(player.getId(), player.getName());
+        creationIndex.add(player.getId(), player.getCreatedAt());
+        player.getStats().onChange(() -> statsChanged(player));
+    }
+
     /** Get player by ID. */
     public Optional<Player> findById(String id) {
         return Optional.ofNullable(players.get(id));
     }
 
+    /** The player, or one standing in for a deleted player by its id alone, for games stored by player id. */
+    Player findOrStandIn(String id) {
+        var player = players.get(id);
+        if (player != null)
+            return player;
+        var missing = new Player();
+        missing.setId(id);
+        return missing;
+    }
+
     public Optional<Player> findByEmail(String email) {
-        return players.values().stream()
-                .filter(player -> player.getEmail().equals(email))
-                .findFirst();
+        var id = playerIdsByEmail.get(email);
+        return id == null ? Optional.empty() : findById(id);
     }
 
     public List<Player> findAll() {
         return new ArrayList<>(players.values());
     }
 
-    public Player updatePlayer(String id, String name, String email) {
-        var player = findById(id).orElseThrow(() -> new IllegalArgumentException("Player not found"));
+    /** One page of all players, oldest first; pass the returned cursor back to fetch the next page. */
+    public PlayerPage findAll(int limit, String cursor) {
+        return resolve(creationIndex.range(null, null, limit, cursor));
+    }
+
+    /** All players, oldest first, produced lazily rather than copied into a list. */
+    public Stream<Player> streamAll() {
+        return creationIndex.ids().map(players::get).filter(Objects::nonNull);
+    }
+
+    /**
+     * Players created in [{@code from}, {@code to}) whose name contains (or, with {@code prefix}, starts with)
+     * {@code name}, case-insensitively; every filter is optional. Oldest first, produced lazily.
+     */
+    public Stream<Player> stream(String name, boolean prefix, LocalDateTime from, LocalDateTime to) {
+        var players = creationIndex.ids(from, to).map(this.players::get).filter(Objects::nonNull);
+        if (name == null || name.isBlank())
+            return players;
+        var term = name.toLowerCase().trim();
+        return players.filter(player -> {
+            var lower = player.getName().toLowerCase();
+            return prefix ? lower.startsWith(term) : lower.contains(term);
+        });
+    }
 
-        if (!player.getEmail().equals(email)) {
-            findByEmail(email).ifPresent(existing -> {
-                if (!existing.getId().equals(id)) {
+    public Player updatePlayer(String id, String name, String email) {
+        if (reservedIds.contains(id)) {
+            throw new ReservedPlayerException("Computer players cannot be changed");
+        }
+        // computeIfPresent serializes updates of the same player, so the email swap is atomic
+        var updated = players.computeIfPresent(id, (key, player) -> {
+            var oldEmail = player.getEmail();
+            if (!oldEmail.equals(email)) {
+                checkNotReserved(email);
+                var owner = playerIdsByEmail.putIfAbsent(email, id);
+                if (owner != null && !owner.equals(id)) {
                     throw new IllegalArgumentException("Email already in use by another player");
                 }
-            });
+                player.setEmail(email);
+                playerIdsByEmail.remove(oldEmail, id);
+            }
+            player.setName(name);
+            nameIndex.put(id, name);
+            player.touch();
+            return player;
+        });
+        if (updated == null) {
+            throw new IllegalArgumentException("Player not found");
         }
-
-        player.setName(name);
-        player.setEmail(email);
-        return player;
+        version.increment();
+        for (var listener : listeners) {
+            listener.playerChanged(updated);
+        }
+        return updated;
     }
 
     public boolean deletePlayer(String id) {
-        return players.remove(id) != null;
+        if (reservedIds.contains(id)) {
+            throw new ReservedPlayerException("Computer players cannot be deleted");
+        }
+        var removed = players.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        playerIdsByEmail.remove(removed.getEmail(), id);
+        nameIndex.remove(id);
+        creationIndex.remove(id, removed.getCreatedAt());
+        removed.getStats().onChange(null);
+        unrank(id);
+        version.increment();
+        for (var listener : listeners) {
+            listener.playerDeleted(id);
+        }
+        return true;
     }
 
     public List<Player> searchByName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return findAll();
         }
+        return searchByName(name, false, Integer.MAX_VALUE, null).players();
+    }
+
+    /**
+     * Search players whose name contains (or, with {@code prefix}, starts with) the given text, case-insensitively.
+     * Returns at most {@code limit} players; pass the returned cursor back to fetch the next page.
+     */
+    public PlayerPage searchByName(String name, boolean prefix, int limit, String cursor) {
         var searchTerm = name.toLowerCase().trim();
-        return players.values().stream()
-                .filter(player -> player.getName().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+        return resolve(prefix
+                ? nameIndex.startsWith(searchTerm, limit, cursor)
+                : nameIndex.contains(searchTerm, limit, cursor));
     }
 
     public PlayerStats getPlayerStats(String id) {
@@ -80,26 +255,15 @@ public class PlayerService {
     }
 
     public List<Player> getLeaderboard(int limit) {
-        return players.values().stream()
-                .filter(player -> player.getStats().getGamesPlayed() > 0)
-                .sorted((p1, p2) -> Double.compare(p2.getStats().getWinRate(), p1.getStats().getWinRate()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return byWinRate.top(limit, players::get);
     }
 
     public List<Player> getMostActivePlayers(int limit) {
-        return players.values().stream()
-                .sorted((p1, p2) -> Integer.compare(p2.getStats().getGamesPlayed(), p1.getStats().getGamesPlayed()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return byGamesPlayed.top(limit, players::get);
     }
 
     public List<Player> getMostEfficientPlayers(int limit) {
-        return players.values().stream()
-                .filter(player -> player.getStats().getGamesWon() > 0)
-                .sorted((p1, p2) -> Double.compare(p2.getStats().getEfficiency(), p1.getStats().getEfficiency()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return byEfficiency.top(limit, players::get);
     }
 
     public void updatePlayerStats(String playerId, boolean won, boolean drawn, int movesMade) {
@@ -117,16 +281,84 @@ public class PlayerService {
         stats.addMoves(movesMade);
     }
 
+    private void statsChanged(Player player) {
+        player.touch();
+        // A late stats change must not re-rank a player that has been deleted
+        if (players.get(player.getId()) != player) {
+            return;
+        }
+        rank(player);
+        version.increment();
+        for (var listener : listeners) {
+            listener.playerChanged(player);
+        }
+    }
+
+    private void rank(Player player) {
+        if (reservedIds.contains(player.getId())) {
+            return;
+        }
+        byWinRate.update(player);
+        byGamesPlayed.update(player);
+        byEfficiency.update(player);
+    }
+
+    private void unrank(String id) {
+        byWinRate.remove(id);
+        byGamesPlayed.remove(id);
+        byEfficiency.remove(id);
+    }
+
+    /** Aggregate version of all players and their stats, e.g. for leaderboard ETags; read it before the data. */
+    public long getVersion() {
+        return version.sum();
+    }
+
     public long getTotalPlayerCount() {
         return players.size();
     }
 
+    /** Players created strictly after {@code startDate} and strictly before {@code endDate}, oldest first. */
     public List<Player> getPlayersCreatedBetween(Date startDate, Date endDate) {
-        return players.values().stream()
-                .filter(player -> {
-                    var createdAt = Timestamp.valueOf(player.getCreatedAt());
-                    return createdAt.after(startDate) && createdAt.before(endDate);
-                })
-                .collect(Collectors.toList());
+        var start = new Timestamp(startDate.getTime()).toLocalDateTime();
+        var end = new Timestamp(endDate.getTime()).toLocalDateTime();
+        return resolve(creationIndex.between(start, end, Integer.MAX_VALUE)).players();
+    }
+
+    /**
+     * Players created in [{@code from}, {@code to}), either bound optional, oldest first.
+     * Returns at most {@code limit} players; pass the returned cursor back to fetch the next page.
+     */
+    public PlayerPage getPlayersCreatedBetween(LocalDateTime from, LocalDateTime to, int limit, String cursor) {
+        return resolve(creationIndex.range(from, to, limit, cursor));
+    }
+
+    private PlayerPage resolve(Page page) {
+        var result = new ArrayList<Player>(page.ids().size());
+        for (var id : page.ids()) {
+            var player = players.get(id);
+            if (player != null) {
+                result.add(player);
+            }
+        }
+        return new PlayerPage(result, page.nextCursor());
+    }
+
+    /** Observer of player changes, called on the changing thread after the change is visible in memory. */
+    public interface PlayerListener {
+        /** The player was created, renamed or had its stats change. */
+        void playerChanged(Player player);
+
+        void playerDeleted(String playerId);
+    }
+
+    /** One page of players; {@code nextCursor} is null on the last page. */
+    public record PlayerPage(List<Player> players, String nextCursor) {
+    }
+
+    public static class ReservedPlayerException extends RuntimeException {
+        public ReservedPlayerException(String m) {
+            super(m);
+        }
     }
 }
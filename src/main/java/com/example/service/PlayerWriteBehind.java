@@ -0,0 +1,219 @@
+package com.example.service;
+
+import com.example.model.Player;
+import com.example.repository.PlayerRepository;
+import com.example.service.PlayerService.PlayerListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind persistence of players. The in-memory {@link PlayerService} stays the source of truth; changes only
+ * mark the player dirty, and a flusher thread writes the current state of dirty players in JDBC batches, either
+ * every flush interval or as soon as a batch worth is pending. Repeated changes to one player between flushes
+ * coalesce into one write, so a crash loses at most one flush interval.
+ *
+ * Marking never blocks, since stats change inside moves, under the game's lock; the dirty set holds at most one
+ * entry per player however far the flusher falls behind. Backpressure is applied at the edges instead: once
+ * max-pending players are dirty (e.g. the database is down or slow), {@link #hasRoom()} is false, so the API refuses
+ * new player writes and bulk imports wait for room, until the flusher catches up.
+ */
+@Component
+public class PlayerWriteBehind implements PlayerListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayerWriteBehind.class);
+
+    private enum Op {
+        UPSERT, DELETE
+    }
+
+    @Value("${player-store.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${player-store.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${player-store.flush-interval-ms:1000}")
+    private long flushIntervalMs = 1000;
+
+    @Value("${player-store.max-pending:100000}")
+    private int maxPending = 100_000;
+
+    private final PlayerService playerService;
+    private final PlayerRepository repository;
+    // Latest pending operation per player id
+    private final Map<String, Op> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition roomAvailable = lock.newCondition();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private Thread flusher;
+    private volatile boolean running;
+
+    public PlayerWriteBehind(PlayerService playerService, PlayerRepository repository) {
+        this.playerService = playerService;
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        if (batchSize <= 0)
+            batchSize = 500;
+        if (flushIntervalMs <= 0)
+            flushIntervalMs = 1000;
+        if (maxPending < batchSize)
+            maxPending = batchSize;
+        restore();
+        running = true;
+        flusher = new Thread(this::run, "player-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Load the persisted players into the service, then start tracking changes. */
+    void restore() {
+        var loaded = 0;
+        for (var player : repository.findAll()) {
+            playerService.restore(player);
+            loaded++;
+        }
+        log.info("Loaded {} players from the database", loaded);
+        playerService.addListener(this);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null)
+            return;
+        running = false;
+        signal();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Override
+    public void playerChanged(Player player) {
+        mark(player.getId(), Op.UPSERT);
+    }
+
+    @Override
+    public void playerDeleted(String playerId) {
+        mark(playerId, Op.DELETE);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /** Whether fewer than max-pending players wait to be written, so callers outside games may add more. */
+    public boolean hasRoom() {
+        return pending.size() < maxPending;
+    }
+
+    /** Wait until {@link #hasRoom()}; never to be called under a game's lock. */
+    public void awaitRoom() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!hasRoom() && running)
+                roomAvailable.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long failedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    private void mark(String playerId, Op op) {
+        // Only a new id grows the set, and by one entry per player at most
+        if (pending.put(playerId, op) == null && pending.size() >= batchSize)
+            signal();
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            lock.lock();
+            try {
+                if (pending.size() < batchSize)
+                    workAvailable.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            flush();
+        }
+        // Shutting down: write whatever is left
+        flush();
+    }
+
+    /** Write every pending change; ids whose batch fails stay pending and are retried on the next flush. */
+    void flush() {
+        var upserts = new ArrayList<Player>(batchSize);
+        var deletes = new ArrayList<String>();
+        for (var id : pending.keySet()) {
+            // Remove before reading the player: a change made after this re-marks it for the next flush
+            var op = pending.remove(id);
+            if (op == Op.DELETE) {
+                deletes.add(id);
+            } else if (op == Op.UPSERT) {
+                // A player deleted meanwhile has a DELETE pending instead
+                playerService.findById(id).ifPresent(upserts::add);
+            }
+            if (upserts.size() >= batchSize) {
+                write(upserts, List.of());
+                upserts = new ArrayList<>(batchSize);
+            }
+            if (deletes.size() >= batchSize) {
+                write(List.of(), deletes);
+                deletes = new ArrayList<>();
+            }
+        }
+        write(upserts, deletes);
+        lock.lock();
+        try {
+            roomAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<Player> upserts, List<String> deletes) {
+        try {
+            if (!upserts.isEmpty())
+                repository.upsertAll(upserts);
+            if (!deletes.isEmpty())
+                repository.deleteAllByIdInBatch(deletes);
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            log.warn("Could not persist {} players; will retry", upserts.size() + deletes.size(), e);
+            for (var player : upserts)
+                pending.putIfAbsent(player.getId(), Op.UPSERT);
+            for (var id : deletes)
+                pending.putIfAbsent(id, Op.DELETE);
+        }
+    }
+}
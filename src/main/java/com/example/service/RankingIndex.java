@@ -0,0 +1,85 @@
+package com.example.service;
+
+import com.example.model.Player;
+import com.example.model.PlayerStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Players ordered by a score derived from their {@link PlayerStats}, highest first.
+ * Updated whenever a player's stats change, so reading the top N walks N entries instead of sorting everyone.
+ */
+class RankingIndex {
+
+    private record Entry(double score, String playerId) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::playerId);
+
+    private final Predicate<PlayerStats> eligible;
+    private final ToDoubleFunction<PlayerStats> score;
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    // Current entry per player, so an update can find and replace it
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    RankingIndex(Predicate<PlayerStats> eligible, ToDoubleFunction<PlayerStats> score) {
+        this.eligible = eligible;
+        this.score = score;
+    }
+
+    /** Re-rank a player from its current stats; a no-op when its score did not change. */
+    void update(Player player) {
+        // Fast path without locking: most stats changes (e.g. a move) leave this score untouched
+        var stats = player.getStats();
+        var current = entries.get(player.getId());
+        if (eligible.test(stats)
+                ? current != null && Double.compare(current.score(), score.applyAsDouble(stats)) == 0
+                : current == null)
+            return;
+
+        // compute serializes updates of the same player, so the remove/add pair is never interleaved
+        entries.compute(player.getId(), (id, old) -> {
+            if (!eligible.test(stats)) {
+                if (old != null)
+                    ranking.remove(old);
+                return null;
+            }
+            var newScore = score.applyAsDouble(stats);
+            if (old != null) {
+                if (Double.compare(old.score(), newScore) == 0)
+                    return old;
+                ranking.remove(old);
+            }
+            var entry = new Entry(newScore, id);
+            ranking.add(entry);
+            return entry;
+        });
+    }
+
+    void remove(String playerId) {
+        entries.computeIfPresent(playerId, (id, old) -> {
+            ranking.remove(old);
+            return null;
+        });
+    }
+
+    /** The highest ranked players, resolving ids through {@code players}; ids it cannot resolve are skipped. */
+    List<Player> top(int limit, Function<String, Player> players) {
+        var result = new ArrayList<Player>(Math.max(0, Math.min(limit, 64)));
+        for (var iterator = ranking.iterator(); iterator.hasNext() && result.size() < limit;) {
+            var player = players.apply(iterator.next().playerId());
+            if (player != null)
+                result.add(player);
+        }
+        return result;
+    }
+}
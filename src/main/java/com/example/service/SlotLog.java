@@ -0,0 +1,141 @@
+package com.example.service;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Entries of an off-heap store (a slot and the generation of the game in it) ordered by a long key, such as the
+ * creation time, in two parallel primitive arrays instead of an object per game. Ties are broken by the entry, so
+ * every (key, entry) pair has one place and a page can resume after the last one it returned.
+ *
+ * Entries of games removed since stay until the owner compacts the log; readers skip them. An entry added in key
+ * order, or nearly (concurrent changes reach the store a little out of order), goes straight to its place; one far
+ * out of order, like games restored from a snapshot in parallel, leaves the log unsorted until {@link #sort}. Not
+ * thread-safe: the owner guards it with its lock.
+ */
+final class SlotLog {
+
+    // How far back an entry is moved into place before the log is left unsorted instead
+    private static final int NEAR_END = 64;
+
+    private long[] keys = new long[1024];
+    private long[] entries = new long[1024];
+    private int size;
+    private boolean sorted = true;
+
+    static long entry(int slot, int generation) {
+        return (long) slot << 32 | generation & 0xFFFFFFFFL;
+    }
+
+    static int slotOf(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    void add(long key, long entry) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        var at = size;
+        if (sorted) {
+            var floor = Math.max(0, size - NEAR_END);
+            while (at > floor && compare(keys[at - 1], entries[at - 1], key, entry) > 0)
+                at--;
+            if (at == floor && at > 0 && compare(keys[at - 1], entries[at - 1], key, entry) > 0) {
+                at = size;
+                sorted = false;
+            } else {
+                System.arraycopy(keys, at, keys, at + 1, size - at);
+                System.arraycopy(entries, at, entries, at + 1, size - at);
+            }
+        }
+        keys[at] = key;
+        entries[at] = entry;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isSorted() {
+        return sorted;
+    }
+
+    long key(int index) {
+        return keys[index];
+    }
+
+    long entry(int index) {
+        return entries[index];
+    }
+
+    /** Index of the first pair after (key, entry); the log must be sorted. */
+    int after(long key, long entry) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (compare(keys[middle], entries[middle], key, entry) <= 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /** Drop the entries that are no longer {@code live}, keeping the order. */
+    void compact(LongPredicate live) {
+        var kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (live.test(entries[i])) {
+                keys[kept] = keys[i];
+                entries[kept] = entries[i];
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    /** Bottom-up merge sort of the pairs, stable and without boxing them. */
+    void sort() {
+        if (sorted)
+            return;
+        var fromKeys = keys;
+        var fromEntries = entries;
+        var toKeys = new long[keys.length];
+        var toEntries = new long[entries.length];
+        for (int width = 1; width < size; width *= 2) {
+            for (int start = 0; start < size; start += 2 * width) {
+                var middle = Math.min(start + width, size);
+                var end = Math.min(start + 2 * width, size);
+                int left = start;
+                int right = middle;
+                for (int out = start; out < end; out++) {
+                    if (right >= end || left < middle
+                            && compare(fromKeys[left], fromEntries[left], fromKeys[right], fromEntries[right]) <= 0) {
+                        toKeys[out] = fromKeys[left];
+                        toEntries[out] = fromEntries[left++];
+                    } else {
+                        toKeys[out] = fromKeys[right];
+                        toEntries[out] = fromEntries[right++];
+                    }
+                }
+            }
+            var swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+            var swapEntries = fromEntries;
+            fromEntries = toEntries;
+            toEntries = swapEntries;
+        }
+        keys = fromKeys;
+        entries = fromEntries;
+        sorted = true;
+    }
+
+    private static int compare(long key, long entry, long otherKey, long otherEntry) {
+        var byKey = Long.compare(key, otherKey);
+        return byKey != 0 ? byKey : Long.compare(entry, otherEntry);
+    }
+}
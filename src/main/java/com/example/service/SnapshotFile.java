@@ -0,0 +1,324 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Player;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary point-in-time image of the players and games, in independently checksummed chunks of records so loading
+ * can decode the chunks in parallel. Each game is encoded under its lock, one at a time, so taking a snapshot never
+ * stops the service; the result is fuzzy across games, which the journal replayed on top of it makes consistent.
+ *
+ * Layout: magic, format, the first journal segment not covered, then chunks of (kind, record count, payload length,
+ * payload, CRC32C of the payload), ending with an END kind. Players come before games, which refer to them by id.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x54545453;
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+    private static final int CHUNK_HEADER_BYTES = 1 + 4 + 4;
+
+    private static final byte END = 0;
+    private static final byte PLAYERS = 1;
+    private static final byte GAMES = 2;
+
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int MAX_STRING_BYTES = 0xFFFE;
+    private static final int NO_STRING = 0xFFFF;
+    // Big enough for the largest record: a player with three maximal strings
+    private static final int MAX_RECORD_BYTES = 3 * (2 + MAX_STRING_BYTES) + 2 * 12 + 5 * 4;
+    /** Upper bound of {@link #encodeGame}'s output. */
+    static final int MAX_GAME_BYTES = 4 * (2 + MAX_STRING_BYTES) + 12 + 8 + 1 + 9;
+
+    private SnapshotFile() {
+    }
+
+    /** What a load restored; {@code droppedGames} referred to players that do not exist and were held back. */
+    record Loaded(long segment, long players, long games, long droppedGames) {
+    }
+
+    /** Write a snapshot covering the journal up to {@code segment}; players are left out when null. */
+    static void write(Path path, long segment, PlayerService playerService, GameService gameService)
+            throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            var header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT).putLong(segment).flip();
+            channel.write(header);
+            var writer = new ChunkWriter(channel);
+            if (playerService != null) {
+                writer.begin(PLAYERS);
+                playerService.streamAll().forEach(player -> writer.add(out -> encode(out, player)));
+                writer.end();
+            }
+            writer.begin(GAMES);
+            // Encoded under the game's lock, so each game is a consistent state between two changes
+            gameService.streamAll().forEach(game -> gameService.withGame(game.getId(), locked -> {
+                writer.add(out -> encodeGame(out, locked));
+                return locked;
+            }));
+            writer.end();
+            channel.write(ByteBuffer.allocate(1).put(END).flip());
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Restore a snapshot into the services, decoding its chunks in parallel: all player chunks first (unless
+     * {@code playerService} is only used for lookups, i.e. {@code restorePlayers} is false), then all games. Games
+     * referring to players that do not exist go to {@code unresolved} instead, from several threads at once.
+     */
+    static Loaded load(Path path, PlayerService playerService, boolean restorePlayers, GameService gameService,
+            Consumer<GameJournal.UnresolvedGame> unresolved) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var header = read(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT)
+                throw new IOException("Not a snapshot: " + path);
+            var segment = header.getLong();
+
+            var players = new ArrayList<Chunk>();
+            var games = new ArrayList<Chunk>();
+            var position = (long) HEADER_BYTES;
+            while (true) {
+                var kind = read(channel, position, 1).get();
+                if (kind == END)
+                    break;
+                var chunkHeader = read(channel, position, CHUNK_HEADER_BYTES).position(1);
+                var chunk = new Chunk(chunkHeader.getInt(), position + CHUNK_HEADER_BYTES, chunkHeader.getInt());
+                (kind == PLAYERS ? players : games).add(chunk);
+                position = chunk.offset() + chunk.length() + 4;
+            }
+
+            var restoredPlayers = new AtomicLong();
+            if (restorePlayers) {
+                players.parallelStream().forEach(chunk -> {
+                    var records = payload(channel, chunk, path);
+                    for (int i = 0; i < chunk.count(); i++)
+                        playerService.restore(decodePlayer(records));
+                    restoredPlayers.addAndGet(chunk.count());
+                });
+            }
+            var restoredGames = new AtomicLong();
+            var dropped = new AtomicLong();
+            games.parallelStream().forEach(chunk -> {
+                var records = payload(channel, chunk, path);
+                for (int i = 0; i < chunk.count(); i++) {
+                    var start = records.position();
+                    var game = decodeGame(records, id -> playerService.findById(id).orElse(null));
+                    if (game == null) {
+                        unresolved.accept(decodeUnresolved(records.duplicate().position(start)));
+                        dropped.incrementAndGet();
+                    } else {
+                        gameService.restore(game);
+                        restoredGames.incrementAndGet();
+                    }
+                }
+            });
+            return new Loaded(segment, restoredPlayers.get(), restoredGames.get(), dropped.get());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record Chunk(int count, long offset, int length) {
+    }
+
+    /** Fills chunks of records and writes each one out with its header and checksum once it is full. */
+    private static final class ChunkWriter {
+        private final FileChannel channel;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_HEADER_BYTES + CHUNK_BYTES + 4);
+        private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_BYTES);
+        private final CRC32C crc = new CRC32C();
+        private byte kind;
+        private int count;
+
+        ChunkWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void begin(byte kind) {
+            this.kind = kind;
+            count = 0;
+            chunk.clear().position(CHUNK_HEADER_BYTES);
+        }
+
+        void add(Consumer<ByteBuffer> encoder) {
+            record.clear();
+            encoder.accept(record);
+            record.flip();
+            if (chunk.position() - CHUNK_HEADER_BYTES + record.remaining() > CHUNK_BYTES) {
+                end();
+                begin(kind);
+            }
+            chunk.put(record);
+            count++;
+        }
+
+        void end() {
+            if (count == 0)
+                return;
+            var length = chunk.position() - CHUNK_HEADER_BYTES;
+            crc.reset();
+            crc.update(chunk.array(), CHUNK_HEADER_BYTES, length);
+            chunk.putInt((int) crc.getValue());
+            chunk.put(0, kind).putInt(1, count).putInt(5, length);
+            chunk.flip();
+            try {
+                while (chunk.hasRemaining())
+                    channel.write(chunk);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void encode(ByteBuffer out, Player player) {
+        putString(out, player.getId());
+        putString(out, player.getName());
+        putString(out, player.getEmail());
+        putTime(out, player.getCreatedAt());
+        putTime(out, player.getUpdatedAt());
+        var stats = player.getStats();
+        out.putInt(stats.getGamesPlayed()).putInt(stats.getGamesWon()).putInt(stats.getGamesLost())
+                .putInt(stats.getGamesDrawn()).putInt(stats.getTotalMoves());
+    }
+
+    private static Player decodePlayer(ByteBuffer in) {
+        var player = new Player();
+        player.setId(getString(in));
+        player.setName(getString(in));
+        player.setEmail(getString(in));
+        player.setCreatedAt(getTime(in));
+        player.setUpdatedAt(getTime(in));
+        var stats = player.getStats();
+        stats.setGamesPlayed(in.getInt());
+        stats.setGamesWon(in.getInt());
+        stats.setGamesLost(in.getInt());
+        stats.setGamesDrawn(in.getInt());
+        stats.setTotalMoves(in.getInt());
+        return player;
+    }
+
+    /** A game as its players and the cells of its moves in order; everything else is derived on decoding. */
+    static void encodeGame(ByteBuffer out, Game game) {
+        putString(out, game.getId());
+        putString(out, game.getName());
+        putTime(out, game.getCreatedAt());
+        out.putLong(game.getUpdatedAtMillis());
+        List<Player> players = game.getPlayers();
+        putString(out, players.size() > 0 ? players.get(0).getId() : null);
+        putString(out, players.size() > 1 ? players.get(1).getId() : null);
+        var moves = game.getMoveCount();
+        out.put((byte) moves);
+        for (int i = 0; i < moves; i++)
+            out.put((byte) game.positionOfMove(i));
+    }
+
+    /** The decoded game, or null when {@code players} does not know one of its players. */
+    static Game decodeGame(ByteBuffer in, Function<String, Player> players) {
+        var game = new Game(getString(in), getString(in), getTime(in));
+        var updatedAtMillis = in.getLong();
+        var missing = false;
+        for (int i = 0; i < 2; i++) {
+            var playerId = getString(in);
+            if (playerId != null) {
+                var player = players.apply(playerId);
+                if (player != null)
+                    game.addPlayer(player);
+                else
+                    missing = true;
+            }
+        }
+        var moves = in.get();
+        for (int i = 0; i < moves; i++) {
+            var position = in.get();
+            if (!missing)
+                game.replayMove(position);
+        }
+        game.setUpdatedAtMillis(updatedAtMillis);
+        return missing ? null : game;
+    }
+
+    /** The same record as {@link #decodeGame}, as ids and moves rather than players and a board. */
+    private static GameJournal.UnresolvedGame decodeUnresolved(ByteBuffer in) {
+        var game = new GameJournal.UnresolvedGame(getString(in), getString(in), getTime(in));
+        in.getLong();
+        for (int i = 0; i < 2; i++) {
+            var playerId = getString(in);
+            if (playerId != null)
+                game.joined(playerId);
+        }
+        var moves = in.get();
+        for (int i = 0; i < moves; i++)
+            game.moved(in.get());
+        return game;
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) NO_STRING);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        var length = Math.min(bytes.length, MAX_STRING_BYTES);
+        out.putShort((short) length).put(bytes, 0, length);
+    }
+
+    static String getString(ByteBuffer in) {
+        var length = in.getShort() & 0xFFFF;
+        if (length == NO_STRING)
+            return null;
+        var value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void putTime(ByteBuffer out, LocalDateTime time) {
+        out.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer in) {
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+
+    /** A chunk's records, after checking them against its checksum. */
+    private static ByteBuffer payload(FileChannel channel, Chunk chunk, Path path) {
+        try {
+            var payload = read(channel, chunk.offset(), chunk.length() + 4);
+            var crc = new CRC32C();
+            crc.update(payload.array(), 0, chunk.length());
+            if (payload.getInt(chunk.length()) != (int) crc.getValue())
+                throw new IOException("Corrupt snapshot chunk in " + path + " at " + chunk.offset());
+            return payload.limit(chunk.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Positional read, safe to run from several threads on one channel. */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Truncated snapshot");
+        }
+        return buffer.flip();
+    }
+}
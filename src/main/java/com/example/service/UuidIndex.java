@@ -0,0 +1,133 @@
+package com.example.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Open-addressing hash map from id to a non-negative long, with no per-entry objects. Ids are UUIDs, kept as their
+ * two longs in flat arrays with linear probing and backward-shift deletion; the rare id that is not a UUID goes to a
+ * plain map. Not thread-safe: callers lock around it.
+ */
+final class UuidIndex {
+    private long[] high = new long[1024];
+    private long[] low = new long[1024];
+    // Value + 1, so zero marks a free slot
+    private long[] values = new long[1024];
+    private int size;
+    private final Map<String, Long> other = new HashMap<>();
+
+    int size() {
+        return size + other.size();
+    }
+
+    /** The previous value, or -1. */
+    long put(String id, long value) {
+        var uuid = uuid(id);
+        if (uuid == null) {
+            var previous = other.put(id, value);
+            return previous == null ? -1 : previous;
+        }
+        if ((size + 1) * 2 > values.length)
+            grow();
+        var previous = insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value + 1);
+        if (previous == 0)
+            size++;
+        return previous - 1;
+    }
+
+    /** The value, or -1. */
+    long get(String id) {
+        var uuid = uuid(id);
+        return uuid == null ? other.getOrDefault(id, -1L) : get(uuid);
+    }
+
+    /** The value stored for the canonical form of the UUID, or -1; saves parsing an id already parsed. */
+    long get(UUID uuid) {
+        var slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return slot < 0 ? -1 : values[slot] - 1;
+    }
+
+    boolean remove(String id) {
+        var uuid = uuid(id);
+        if (uuid == null)
+            return other.remove(id) != null;
+        var slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (slot < 0)
+            return false;
+        values[slot] = 0;
+        size--;
+        // Pull later entries of the probe run back over the gap, unless they would land before their home slot
+        var mask = values.length - 1;
+        var gap = slot;
+        for (int i = (slot + 1) & mask; values[i] != 0; i = (i + 1) & mask) {
+            var home = home(high[i], low[i], mask);
+            var stays = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (!stays) {
+                high[gap] = high[i];
+                low[gap] = low[i];
+                values[gap] = values[i];
+                values[i] = 0;
+                gap = i;
+            }
+        }
+        return true;
+    }
+
+    private int find(long hi, long lo) {
+        var mask = values.length - 1;
+        for (int i = home(hi, lo, mask); values[i] != 0; i = (i + 1) & mask) {
+            if (high[i] == hi && low[i] == lo)
+                return i;
+        }
+        return -1;
+    }
+
+    /** Store the stored-form value; returns the one it replaced, or 0. */
+    private long insert(long hi, long lo, long stored) {
+        var mask = values.length - 1;
+        var i = home(hi, lo, mask);
+        while (values[i] != 0) {
+            if (high[i] == hi && low[i] == lo) {
+                var previous = values[i];
+                values[i] = stored;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        high[i] = hi;
+        low[i] = lo;
+        values[i] = stored;
+        return 0;
+    }
+
+    private void grow() {
+        var oldHigh = high;
+        var oldLow = low;
+        var oldValues = values;
+        high = new long[oldValues.length * 2];
+        low = new long[oldValues.length * 2];
+        values = new long[oldValues.length * 2];
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != 0)
+                insert(oldHigh[i], oldLow[i], oldValues[i]);
+        }
+    }
+
+    private static int home(long hi, long lo, int mask) {
+        var h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+
+    /** The id as a UUID, or null when it is not the canonical form of one. */
+    static UUID uuid(String id) {
+        try {
+            var uuid = UUID.fromString(id);
+            // fromString also accepts shortened forms, which would not map back to the same id
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
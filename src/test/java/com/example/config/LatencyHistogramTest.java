@@ -0,0 +1,34 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreExactForSmallValuesAndWithinThreePercentAbove() {
+        for (long value = 0; value < 32; value++)
+            assertEquals(value, LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(value)));
+        for (long value = 32; value < 10_000_000_000L; value = value * 3 / 2 + 7) {
+            var high = LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(value));
+            assertTrue(high >= value && high <= value * 1.032, "value " + value + " reported as " + high);
+        }
+    }
+
+    @Test
+    void percentilesOfUniformMicroseconds() {
+        var histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++)
+            histogram.record(micros * 1000L);
+
+        var snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_000, snapshot.valueAt(0.5), 500_000 * 0.032);
+        assertEquals(990_000, snapshot.valueAt(0.99), 990_000 * 0.032);
+        assertEquals(999_000, snapshot.valueAt(0.999), 999_000 * 0.032);
+        assertEquals(1_000_000, snapshot.max());
+        assertEquals(0, new LatencyHistogram().snapshot().valueAt(0.99));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.config;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link RateLimitingFilter} with many clients hitting it from several threads.
+ * Run with: mvn -Pbenchmark test -Djmh.args="RateLimitingFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RateLimitingFilterBenchmark {
+
+    private static final FilterChain NO_OP = (request, response) -> {
+    };
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+        @Param({ "10000" })
+        int clients;
+
+        RateLimitingFilter filter;
+
+        @Setup
+        public void setUp() {
+            filter = new RateLimitingFilter();
+            // High enough that every request is admitted; we measure the bookkeeping, not rejections
+            ReflectionTestUtils.setField(filter, "requestsPerWindow", Integer.MAX_VALUE / 2);
+            ReflectionTestUtils.setField(filter, "windowSizeMs", 60_000L);
+            filter.start();
+        }
+
+        @TearDown
+        public void tearDown() {
+            filter.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        MockHttpServletRequest[] requests;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int next;
+
+        @Setup
+        public void setUp(Limiter limiter) {
+            requests = new MockHttpServletRequest[limiter.clients];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new MockHttpServletRequest("GET", "/games");
+                requests[i].setRemoteAddr("10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255));
+            }
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterRequest(Limiter limiter, Client client) throws Exception {
+        var request = client.requests[client.next];
+        client.next = (client.next + 1) % client.requests.length;
+        limiter.filter.doFilter(request, client.response, NO_OP);
+        return client.response;
+    }
+}
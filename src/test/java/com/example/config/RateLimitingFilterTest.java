@@ -0,0 +1,84 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class RateLimitingFilterTest {
+
+    private RateLimitingFilter filter;
+
+    private void startFilter(int requestsPerWindow, long windowSizeMs, int maxClients) {
+        filter = new RateLimitingFilter();
+        ReflectionTestUtils.setField(filter, "requestsPerWindow", requestsPerWindow);
+        ReflectionTestUtils.setField(filter, "windowSizeMs", windowSizeMs);
+        ReflectionTestUtils.setField(filter, "maxClients", maxClients);
+        filter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.stop();
+    }
+
+    private MockHttpServletResponse send(String clientIp) throws Exception {
+        var request = new MockHttpServletRequest("GET", "/games");
+        request.addHeader("X-Forwarded-For", clientIp + ", 10.0.0.1");
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void burstIsAdmittedThenRejectedWithRetryAfter() throws Exception {
+        startFilter(3, 60_000, 100);
+        assertEquals("2", send("1.1.1.1").getHeader("X-RateLimit-Remaining"));
+        assertEquals("1", send("1.1.1.1").getHeader("X-RateLimit-Remaining"));
+        assertEquals("0", send("1.1.1.1").getHeader("X-RateLimit-Remaining"));
+
+        var rejected = send("1.1.1.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("20", rejected.getHeader("Retry-After"));
+        // Other clients have their own buckets
+        assertEquals(200, send("2.2.2.2").getStatus());
+    }
+
+    @Test
+    void tokensRefillOverTheWindow() throws Exception {
+        startFilter(2, 100, 100);
+        send("1.1.1.1");
+        send("1.1.1.1");
+        assertEquals(429, send("1.1.1.1").getStatus());
+        Thread.sleep(60);
+        assertEquals(200, send("1.1.1.1").getStatus());
+    }
+
+    @Test
+    void clientsBeyondTheCapShareOverflowBucketUntilSwept() throws Exception {
+        startFilter(2, 100, 2);
+        send("1.1.1.1");
+        send("2.2.2.2");
+        assertEquals(2, filter.trackedClients());
+
+        // New clients are not tracked individually while the map is full
+        assertEquals(200, send("3.3.3.3").getStatus());
+        assertEquals(200, send("4.4.4.4").getStatus());
+        var rejected = send("5.5.5.5");
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(2, filter.trackedClients());
+
+        // Once their buckets have refilled, idle clients are dropped and new ones tracked again
+        Thread.sleep(150);
+        filter.sweep();
+        assertEquals(0, filter.trackedClients());
+        assertEquals(200, send("5.5.5.5").getStatus());
+        assertEquals(1, filter.trackedClients());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.config;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-thread cost of {@link RequestLoggingFilter}: timing, histogram update and access-log hand-off.
+ * Run with: mvn -Pbenchmark test -Djmh.args="RequestLoggingFilterBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestLoggingFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) ->
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/games/{id}");
+
+    private AccessLog accessLog;
+    private RequestLoggingFilter filter;
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/games/42");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setUp() {
+        accessLog = new AccessLog();
+        accessLog.start();
+        filter = new RequestLoggingFilter(new RequestMetrics(), accessLog);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        accessLog.stop();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterRequest() throws Exception {
+        filter.doFilter(request, response, CHAIN);
+        return response;
+    }
+}
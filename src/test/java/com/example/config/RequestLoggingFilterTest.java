@@ -0,0 +1,81 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLoggingFilterTest {
+
+    @Test
+    void recordsLatencyByRoutePatternAndStatus() throws Exception {
+        var metrics = new RequestMetrics();
+        var filter = new RequestLoggingFilter(metrics, new AccessLog());
+        for (var id : new String[] { "1", "2", "3" }) {
+            var response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/games/" + id), response, (req, res) ->
+                    req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/games/{id}"));
+        }
+        var missing = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/nope"), missing,
+                (req, res) -> ((MockHttpServletResponse) res).setStatus(404));
+
+        var latencies = metrics.latencies();
+        assertEquals(2, latencies.size());
+        assertEquals("/games/{id}", latencies.get(0).route());
+        assertEquals(3, latencies.get(0).count());
+        assertEquals(RequestMetrics.UNMATCHED_ROUTE, latencies.get(1).route());
+        assertEquals(404, latencies.get(1).status());
+    }
+
+    @Test
+    void recordsAsyncRequestsWhenTheyComplete() throws Exception {
+        var metrics = new RequestMetrics();
+        var filter = new RequestLoggingFilter(metrics, new AccessLog());
+        var request = new MockHttpServletRequest("GET", "/games/1/events");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/games/{id}/events");
+            req.startAsync();
+        });
+        assertTrue(metrics.latencies().isEmpty());
+
+        Thread.sleep(20);
+        request.getAsyncContext().complete();
+
+        var latencies = metrics.latencies();
+        assertEquals(1, latencies.size());
+        assertEquals("/games/{id}/events", latencies.get(0).route());
+        assertTrue(latencies.get(0).maxMs() >= 20);
+    }
+
+    @Test
+    void recordsUnknownMethodsUnderOneKey() {
+        var metrics = new RequestMetrics();
+        for (var method : new String[] { "FOO", "BAR", "get", "GET" })
+            metrics.record(method, null, 405, 1000);
+
+        var latencies = metrics.latencies();
+        assertEquals(2, latencies.size());
+        assertEquals("GET", latencies.get(0).method());
+        assertEquals(RequestMetrics.OTHER_METHOD, latencies.get(1).method());
+        assertEquals(3, latencies.get(1).count());
+    }
+
+    @Test
+    void accessLogDropsInsteadOfBlockingWhenFull() throws Exception {
+        var accessLog = new AccessLog();
+        ReflectionTestUtils.setField(accessLog, "queueCapacity", 1);
+        accessLog.start();
+        accessLog.stop();
+        // The writer has exited, so the single slot fills and everything after it is dropped
+        accessLog.append("GET", "/games", 200, 1000);
+        assertFalse(accessLog.append("GET", "/games", 200, 1000));
+        assertEquals(1, accessLog.droppedCount());
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.controller;
 
 import com.example.model.Game;
+import com.example.model.GameState;
 import com.example.service.GameService;
 import com.example.service.PlayerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -20,12 +30,13 @@ class GameControllerTest {
     private GameController gameController;
     private GameService gameService;
     private PlayerService playerService;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
 
     @BeforeEach
     void setUp() {
         playerService = new PlayerService();
         gameService = new GameService(playerService);
-        gameController = new GameController(gameService);
+        gameController = new GameController(gameService, objectMapper, new GameEvents(gameService, objectMapper));
     }
 
     // === GET Endpoint Tests ===
@@ -33,7 +44,7 @@ class GameControllerTest {
     @Test
     void getGame_whenExists_shouldReturnOk() {
         var game = gameService.createGame("GetTest");
-        var response = gameController.getGame(game.getId());
+        var response = gameController.getGame(game.getId(), null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -42,7 +53,7 @@ class GameControllerTest {
 
     @Test
     void getGame_whenNotExists_shouldReturnNotFound() {
-        var response = gameController.getGame("nonexistent-id");
+        var response = gameController.getGame("nonexistent-id", null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -52,12 +63,43 @@ class GameControllerTest {
         gameService.createGame("Game1");
         gameService.createGame("Game2");
 
-        var response = gameController.listGames();
+        var response = gameController.listGames(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
     }
 
+    @Test
+    void listGames_withLimit_shouldPageInCreationOrder() throws Exception {
+        var first = gameService.createGame("Game1");
+        Thread.sleep(1);
+        var second = gameService.createGame("Game2");
+        Thread.sleep(1);
+        var third = gameService.createGame("Game3");
+
+        var page = gameController.listGames(2, null);
+        var cursor = page.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER);
+        assertEquals(List.of(first, second), page.getBody());
+        assertNotNull(cursor);
+
+        var last = gameController.listGames(2, cursor);
+        assertEquals(List.of(third), last.getBody());
+        assertNull(last.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void streamGames_shouldWriteJsonArray() throws Exception {
+        gameService.createGame("Game1");
+        gameService.createGame("Game2");
+
+        var out = new ByteArrayOutputStream();
+        gameController.streamGames().getBody().writeTo(out);
+
+        var json = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, json.size());
+        assertEquals(9, json.get(0).get("board").size());
+    }
+
     @Test
     void getWaitingGames_shouldReturnOnlyWaiting() {
         gameService.createGame("Waiting1");
@@ -76,7 +118,7 @@ class GameControllerTest {
         gameService.createGame("G1");
         gameService.createGame("G2");
 
-        var response = gameController.getGameStats();
+        var response = gameController.getGameStats(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -87,7 +129,7 @@ class GameControllerTest {
     @Test
     void getGameStatus_whenExists_shouldReturnOk() {
         var game = gameService.createGame("StatusGame");
-        var response = gameController.getGameStatus(game.getId());
+        var response = gameController.getGameStatus(game.getId(), null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(Game.GameStatus.WAITING, response.getBody().getStatus());
@@ -95,11 +137,106 @@ class GameControllerTest {
 
     @Test
     void getGameStatus_whenNotExists_shouldReturnNotFound() {
-        var response = gameController.getGameStatus("nonexistent");
+        var response = gameController.getGameStatus("nonexistent", null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void getGameState_shouldReturnCompactView() {
+        var p1 = playerService.createPlayer("ViewP1", "vp1@test.com");
+        var p2 = playerService.createPlayer("ViewP2", "vp2@test.com");
+        var game = gameService.createGame("ViewGame");
+        gameService.joinGame(game.getId(), p1.getId());
+        gameService.joinGame(game.getId(), p2.getId());
+        gameService.makeMove(game.getId(), p1.getId(), 1, 1);
+
+        var response = gameController.getGameState(game.getId(), null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("----X----", response.getBody().board());
+        assertEquals(p2.getId(), response.getBody().currentPlayerId());
+        assertEquals(3, response.getBody().version());
+        assertEquals(HttpStatus.NOT_FOUND, gameController.getGameState("nonexistent", null).getStatusCode());
+    }
+
+    @Test
+    void getGameDelta_shouldReturnOnlyNewCells() {
+        var p1 = playerService.createPlayer("DeltaP1", "dp1@test.com");
+        var p2 = playerService.createPlayer("DeltaP2", "dp2@test.com");
+        var game = gameService.createGame("DeltaGame");
+        gameService.joinGame(game.getId(), p1.getId());
+        gameService.joinGame(game.getId(), p2.getId());
+        gameService.makeMove(game.getId(), p1.getId(), 0, 0);
+        gameService.makeMove(game.getId(), p2.getId(), 2, 2);
+
+        var response = gameController.getGameDelta(game.getId(), 3);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("--------O", response.getBody().changes());
+        assertEquals(4, response.getBody().version());
+        assertEquals(HttpStatus.BAD_REQUEST, gameController.getGameDelta(game.getId(), 5).getStatusCode());
+    }
+
+    @Test
+    void makeMoveCompact_shouldReturnCompactView() {
+        var p1 = playerService.createPlayer("CompactP1", "cp1@test.com");
+        var p2 = playerService.createPlayer("CompactP2", "cp2@test.com");
+        var game = gameService.createGame("CompactGame");
+        gameService.joinGame(game.getId(), p1.getId());
+        gameService.joinGame(game.getId(), p2.getId());
+
+        var response = gameController.makeMoveCompact(game.getId(),
+                new GameController.MakeMoveRequest(p1.getId(), 0, 2));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("--X------", ((GameState) response.getBody()).board());
+    }
+
+    @Test
+    void getGameStatus_withMatchingETag_shouldReturnNotModifiedUntilGameChanges() {
+        var p1 = playerService.createPlayer("EtagP1", "ep1@test.com");
+        var game = gameService.createGame("EtagGame");
+
+        var etag = gameController.getGameStatus(game.getId(), null).getHeaders().getETag();
+        var notModified = gameController.getGameStatus(game.getId(), etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        var stateTag = gameController.getGameState(game.getId(), null).getHeaders().getETag();
+        assertEquals(HttpStatus.NOT_MODIFIED, gameController.getGameState(game.getId(), stateTag).getStatusCode());
+
+        gameService.joinGame(game.getId(), p1.getId());
+        assertEquals(HttpStatus.OK, gameController.getGameStatus(game.getId(), etag).getStatusCode());
+        var changedTag = gameController.getGameState(game.getId(), stateTag).getHeaders().getETag();
+        assertTrue(changedTag.endsWith("-1\""));
+        assertNotEquals(stateTag, changedTag);
+    }
+
+    @Test
+    void getGameStatus_etag_shouldChangeWithEmbeddedPlayerStats() {
+        var p1 = playerService.createPlayer("StatsP1", "sp1@test.com");
+        var game = gameService.createGame("StatsGame");
+        gameService.joinGame(game.getId(), p1.getId());
+        var etag = gameController.getGameStatus(game.getId(), null).getHeaders().getETag();
+        var stateTag = gameController.getGameState(game.getId(), null).getHeaders().getETag();
+
+        // Another game of the player ends: this game's version stays, the embedded stats do not
+        p1.getStats().incrementGamesPlayed();
+
+        assertEquals(HttpStatus.OK, gameController.getGameStatus(game.getId(), etag).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, gameController.getGameState(game.getId(), stateTag).getStatusCode());
+    }
+
+    @Test
+    void getGameStats_withMatchingETag_shouldReturnNotModifiedUntilCountsChange() {
+        gameService.createGame("G1");
+        var etag = gameController.getGameStats(null).getHeaders().getETag();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, gameController.getGameStats(etag).getStatusCode());
+        gameService.createGame("G2");
+        assertEquals(HttpStatus.OK, gameController.getGameStats(etag).getStatusCode());
+    }
+
     // === DELETE Endpoint Tests ===
 
     @Test
@@ -210,4 +347,34 @@ class GameControllerTest {
                 () -> gameService.joinGame(game.getId(), p3.getId()));
         assertEquals("Game is full", exception.getMessage());
     }
+
+    @Test
+    void applyBatch_shouldReturnResultsInOrderAndRejectEmptyBatches() {
+        var p1 = playerService.createPlayer("BatchP1", "batch1@test.com");
+        var game = gameService.createGame("Batch");
+        var join = new GameService.BatchOperation(GameService.BatchOperationType.JOIN, game.getId(), p1.getId(),
+                null, null);
+
+        var response = gameController.applyBatch(new GameController.BatchRequest(List.of(join, join)));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        var results = (List<?>) response.getBody();
+        assertEquals(GameService.BatchOutcome.OK, ((GameService.BatchResult) results.get(0)).outcome());
+        assertEquals(GameService.BatchOutcome.REJECTED, ((GameService.BatchResult) results.get(1)).outcome());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                gameController.applyBatch(new GameController.BatchRequest(List.of())).getStatusCode());
+    }
+
+    @Test
+    void applyBatch_beyondConcurrentBatches_shouldBeRefused() {
+        var game = gameService.createGame("Busy");
+        var join = new GameService.BatchOperation(GameService.BatchOperationType.JOIN, game.getId(), "p", null, null);
+        ReflectionTestUtils.setField(gameController, "maxConcurrentBatches", 0);
+
+        var response = gameController.applyBatch(new GameController.BatchRequest(List.of(join)));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(game.getPlayers().isEmpty());
+    }
 }
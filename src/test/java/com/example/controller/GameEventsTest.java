@@ -0,0 +1,209 @@
+package com.example.controller;
+
+import com.example.service.GameService;
+import com.example.service.PlayerService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GameEventsTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private PlayerService playerService;
+    private GameService gameService;
+    private GameEvents gameEvents;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        playerService = new PlayerService();
+        gameService = new GameService(playerService);
+        gameEvents = new GameEvents(gameService, objectMapper);
+        ReflectionTestUtils.setField(gameEvents, "writeTimeoutMs", 100L);
+        gameEvents.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(new GameController(gameService, objectMapper, gameEvents)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameEvents.stop();
+    }
+
+    @Test
+    void subscriber_receivesCurrentStateThenEveryChangeUntilGameEnds() throws Exception {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        var game = gameService.createGame("Pushed");
+        gameService.joinGame(game.getId(), alice.getId());
+
+        var result = subscribe(game.getId());
+        awaitEvents(result, 1);
+        assertEquals(1, gameEvents.subscriberCount(game.getId()));
+
+        gameService.joinGame(game.getId(), bob.getId());
+        for (var col = 0; col < 2; col++) {
+            gameService.makeMove(game.getId(), alice.getId(), 0, col);
+            gameService.makeMove(game.getId(), bob.getId(), 1, col);
+        }
+        gameService.makeMove(game.getId(), alice.getId(), 0, 2);
+
+        var events = awaitEvents(result, 7);
+        assertEquals(7, events.size());
+        assertEquals("WAITING", events.get(0).get("status").asText());
+        assertEquals(alice.getId(), events.get(0).get("xPlayerId").asText());
+        assertFalse(events.get(0).has("players"));
+        assertEquals("ACTIVE", events.get(1).get("status").asText());
+        assertEquals("XX-OO----", events.get(5).get("board").asText());
+        assertEquals("COMPLETED", events.get(6).get("status").asText());
+        assertEquals("XXXOO----", events.get(6).get("board").asText());
+        assertEquals(alice.getId(), events.get(6).get("winnerId").asText());
+        assertEquals(0, gameEvents.subscriberCount(game.getId()));
+    }
+
+    @Test
+    void deleteGame_shouldEndSubscriptions() throws Exception {
+        var game = gameService.createGame("Deleted");
+        var result = subscribe(game.getId());
+        awaitEvents(result, 1);
+
+        gameService.deleteGame(game.getId());
+
+        assertEquals(0, gameEvents.subscriberCount(game.getId()));
+    }
+
+    @Test
+    void slowSubscriber_shouldBeDroppedWithoutHoldingUpMoves() throws Exception {
+        ReflectionTestUtils.setField(gameEvents, "maxPending", 2);
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        var game = gameService.createGame("Slow");
+        var sending = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var sent = new AtomicInteger();
+        var completed = new CountDownLatch(1);
+        // A client that stops reading: its first write blocks until released
+        var emitter = new ResponseBodyEmitter() {
+            @Override
+            public void send(Object object, MediaType mediaType) throws IOException {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                sent.incrementAndGet();
+            }
+
+            @Override
+            public void complete() {
+                completed.countDown();
+            }
+        };
+        gameEvents.subscribe(game.getId(), emitter).orElseThrow();
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        gameService.makeMove(game.getId(), alice.getId(), 0, 0);
+        gameService.makeMove(game.getId(), bob.getId(), 1, 1);
+
+        assertEquals(0, gameEvents.subscriberCount(game.getId()));
+        release.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    void stalledSubscribers_shouldNotHoldUpHealthyOnes() throws Exception {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var game = gameService.createGame("Stalled");
+        var release = new CountDownLatch(1);
+        var stalled = 12;
+        var failed = new CountDownLatch(stalled);
+        for (var i = 0; i < stalled; i++) {
+            // A client that stopped reading, stuck in a write that ignores interrupts
+            var emitter = new ResponseBodyEmitter() {
+                @Override
+                public void send(Object object, MediaType mediaType) {
+                    while (true) {
+                        try {
+                            release.await();
+                            return;
+                        } catch (InterruptedException e) {
+                            // Keep blocking, like a socket write that does not notice
+                        }
+                    }
+                }
+
+                @Override
+                public void completeWithError(Throwable failure) {
+                    failed.countDown();
+                }
+            };
+            gameEvents.subscribe(game.getId(), emitter).orElseThrow();
+        }
+
+        var result = subscribe(game.getId());
+        awaitEvents(result, 1);
+        gameService.joinGame(game.getId(), alice.getId());
+        var events = awaitEvents(result, 2);
+        assertEquals(alice.getId(), events.get(1).get("xPlayerId").asText());
+
+        var deadline = System.currentTimeMillis() + 5000;
+        while (gameEvents.subscriberCount(game.getId()) > 1 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(1, gameEvents.subscriberCount(game.getId()));
+        release.countDown();
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscribe_unknownGame_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/games/{id}/events", "nonexistent")).andExpect(status().isNotFound());
+    }
+
+    private MvcResult subscribe(String gameId) throws Exception {
+        return mockMvc.perform(get("/games/{id}/events", gameId)).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    /** The JSON payloads of the "game" events written so far, once there are at least {@code count}. */
+    private List<JsonNode> awaitEvents(MvcResult result, int count) throws Exception {
+        var deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            var events = new ArrayList<JsonNode>();
+            for (var frame : result.getResponse().getContentAsString().split("\n\n")) {
+                if (frame.startsWith("event: game\ndata: "))
+                    events.add(objectMapper.readTree(frame.substring("event: game\ndata: ".length())));
+            }
+            if (events.size() >= count)
+                return events;
+            if (System.currentTimeMillis() > deadline)
+                fail("Expected " + count + " events, got " + events.size());
+            Thread.sleep(10);
+        }
+    }
+}
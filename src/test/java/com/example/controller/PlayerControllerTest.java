@@ -1,13 +1,30 @@
 package com.example.controller;
 
+import com.example.repository.PlayerRepository;
+import com.example.service.PlayerImporter;
 import com.example.service.PlayerService;
+import com.example.service.PlayerWriteBehind;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for PlayerController.
@@ -17,11 +34,16 @@ class PlayerControllerTest {
 
     private PlayerController playerController;
     private PlayerService playerService;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
 
     @BeforeEach
     void setUp() {
         playerService = new PlayerService();
-        playerController = new PlayerController(playerService);
+        // Not started and not listening: never backlogged
+        var writeBehind = new PlayerWriteBehind(playerService, null);
+        var importer = new PlayerImporter(playerService, writeBehind);
+        ReflectionTestUtils.invokeMethod(importer, "start");
+        playerController = new PlayerController(playerService, objectMapper, importer, writeBehind);
     }
 
     // === Create Player Tests ===
@@ -37,6 +59,24 @@ class PlayerControllerTest {
         assertEquals("alice@test.com", response.getBody().getEmail());
     }
 
+    @Test
+    void createPlayer_whileWriteBehindBacklogged_shouldReturnServiceUnavailable() {
+        var repository = mock(PlayerRepository.class);
+        when(repository.findAll()).thenReturn(List.of());
+        var writeBehind = new PlayerWriteBehind(playerService, repository);
+        ReflectionTestUtils.setField(writeBehind, "maxPending", 1);
+        ReflectionTestUtils.invokeMethod(writeBehind, "restore");
+        var controller = new PlayerController(playerService, objectMapper, null, writeBehind);
+        controller.createPlayer(createRequest("Alice", "alice@test.com"));
+
+        var response = controller.createPlayer(createRequest("Bob", "bob@test.com"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        ReflectionTestUtils.invokeMethod(writeBehind, "flush");
+        assertEquals(HttpStatus.CREATED, controller.createPlayer(createRequest("Bob", "bob@test.com")).getStatusCode());
+    }
+
     // === GET Endpoint Tests ===
 
     @Test
@@ -61,7 +101,7 @@ class PlayerControllerTest {
         playerService.createPlayer("Alice", "alice@test.com");
         playerService.createPlayer("Bob", "bob@test.com");
 
-        var response = playerController.getAllPlayers(null);
+        var response = playerController.getAllPlayers(null, false, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
@@ -72,13 +112,184 @@ class PlayerControllerTest {
         playerService.createPlayer("Alice", "alice@test.com");
         playerService.createPlayer("Bob", "bob@test.com");
 
-        var response = playerController.getAllPlayers("Ali");
+        var response = playerController.getAllPlayers("Ali", false, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals("Alice", response.getBody().get(0).getName());
+    }
+
+    @Test
+    void getAllPlayers_withLimit_shouldPageWithCursor() {
+        for (int i = 0; i < 5; i++)
+            playerService.createPlayer("Player" + i, "page" + i + "@test.com");
+
+        var first = playerController.getAllPlayers("player", false, null, null, 3, null);
+        var cursor = first.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER);
+        assertEquals(3, first.getBody().size());
+        assertNotNull(cursor);
+
+        var second = playerController.getAllPlayers("player", false, null, null, 3, cursor);
+        assertEquals(2, second.getBody().size());
+        assertNull(second.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+        assertTrue(first.getBody().stream().noneMatch(second.getBody()::contains));
+    }
+
+    @Test
+    void getAllPlayers_withPrefix_shouldMatchStartOfName() {
+        playerService.createPlayer("Alice", "alice@test.com");
+        playerService.createPlayer("Malik", "malik@test.com");
+
+        var response = playerController.getAllPlayers("al", true, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
         assertEquals("Alice", response.getBody().get(0).getName());
     }
 
+    @Test
+    void getAllPlayers_withInvalidCursor_shouldReturnBadRequest() {
+        playerService.createPlayer("Alice", "alice@test.com");
+
+        var response = playerController.getAllPlayers("ali", false, null, null, 10, "not base64!");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getAllPlayers_withLimitOnly_shouldPageAllPlayersInCreationOrder() throws Exception {
+        var first = playerService.createPlayer("First", "first@test.com");
+        Thread.sleep(1);
+        var second = playerService.createPlayer("Second", "second@test.com");
+
+        var response = playerController.getAllPlayers(null, false, null, null, 1, null);
+        var cursor = response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER);
+        assertEquals(List.of(first), response.getBody());
+        assertNotNull(cursor);
+
+        var rest = playerController.getAllPlayers(null, false, null, null, 10, cursor);
+        assertEquals(List.of(second), rest.getBody());
+    }
+
+    @Test
+    void importPlayers_csv_shouldImportExportedPlayers() throws Exception {
+        var alice = playerService.createPlayer("Alice, Jr.", "alice@test.com");
+        alice.getStats().incrementGamesPlayed();
+        alice.getStats().incrementGamesWon();
+        playerService.createPlayer("Bob", "bob@test.com");
+        var out = new ByteArrayOutputStream();
+        playerController.exportPlayers("csv").getBody().writeTo(out);
+        var exported = out.toString(StandardCharsets.UTF_8);
+        assertTrue(exported.contains("\"Alice, Jr.\",alice@test.com,"));
+
+        var target = new PlayerService();
+        var writeBehind = new PlayerWriteBehind(target, null);
+        var importer = new PlayerImporter(target, writeBehind);
+        ReflectionTestUtils.invokeMethod(importer, "start");
+        var input = exported + ",Carol,not-an-email,,,0,0,0,0,0\n";
+        var response = new PlayerController(target, objectMapper, importer, writeBehind).importPlayers("text/csv",
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+        var result = (PlayerImporter.ImportResult) response.getBody();
+        assertEquals(2, result.imported());
+        assertEquals(1, result.invalid());
+        assertEquals(List.of("Line 4: Please provide a valid email address"), result.errors());
+        var imported = target.findByEmail("alice@test.com").orElseThrow();
+        assertEquals("Alice, Jr.", imported.getName());
+        // The same player again, history and all
+        assertEquals(alice.getId(), imported.getId());
+        assertEquals(alice.getCreatedAt(), imported.getCreatedAt());
+        assertEquals(1, imported.getStats().getGamesWon());
+    }
+
+    @Test
+    void importPlayers_ndjson_shouldKeepIdsAndStatsOfExportedPlayers() throws Exception {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        alice.getStats().incrementGamesPlayed();
+        alice.getStats().incrementGamesWon();
+        alice.getStats().addMoves(3);
+        var out = new ByteArrayOutputStream();
+        playerController.exportPlayers("ndjson").getBody().writeTo(out);
+
+        var target = new PlayerService();
+        var writeBehind = new PlayerWriteBehind(target, null);
+        var importer = new PlayerImporter(target, writeBehind);
+        ReflectionTestUtils.invokeMethod(importer, "start");
+        var controller = new PlayerController(target, objectMapper, importer, writeBehind);
+        var input = out.toString(StandardCharsets.UTF_8) + "{\"name\": \"Carol\", \"email\": \"carol@test.com\"}\n";
+        var result = (PlayerImporter.ImportResult) controller.importPlayers(PlayerTransfer.NDJSON,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))).getBody();
+
+        assertEquals(2, result.imported());
+        var imported = target.findById(alice.getId()).orElseThrow();
+        assertEquals("alice@test.com", imported.getEmail());
+        assertEquals(1, imported.getStats().getGamesWon());
+        assertEquals(3, imported.getStats().getTotalMoves());
+        assertEquals(List.of(imported), target.getLeaderboard(10));
+        assertNotEquals(alice.getId(), target.findByEmail("carol@test.com").orElseThrow().getId());
+
+        // Importing it again finds every id taken
+        result = (PlayerImporter.ImportResult) controller.importPlayers(PlayerTransfer.NDJSON,
+                new ByteArrayInputStream(out.toByteArray())).getBody();
+        assertEquals(1, result.duplicates());
+        assertEquals(List.of("Line 1: Id already taken: " + alice.getId()), result.errors());
+    }
+
+    @Test
+    void exportPlayers_ndjson_shouldWriteOnePlayerWithStatsPerLine() throws Exception {
+        playerService.createPlayer("Alice", "alice@test.com").getStats().incrementGamesWon();
+        playerService.createPlayer("Bob", "bob@test.com");
+
+        var out = new ByteArrayOutputStream();
+        playerController.exportPlayers("ndjson").getBody().writeTo(out);
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        for (var line : lines) {
+            var player = objectMapper.readTree(line);
+            var alice = player.get("email").asText().equals("alice@test.com");
+            assertEquals(alice ? 1 : 0, player.get("stats").get("gamesWon").asInt());
+        }
+        assertEquals(HttpStatus.BAD_REQUEST, playerController.exportPlayers("xml").getStatusCode());
+    }
+
+    @Test
+    void streamAllPlayers_shouldWriteJsonArray() throws Exception {
+        playerService.createPlayer("Alice", "alice@test.com");
+        playerService.createPlayer("Bob", "bob@test.com");
+
+        var response = playerController.streamAllPlayers(null, false, null, null, null, null);
+        var out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        var json = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, json.size());
+        assertEquals("alice@test.com", json.get(0).get("email").asText());
+        assertNotNull(json.get(1).get("stats"));
+    }
+
+    @Test
+    void streamAllPlayers_shouldApplyFilters() throws Exception {
+        playerService.createPlayer("Alice", "alice@test.com");
+        playerService.createPlayer("Bob", "bob@test.com");
+        playerService.createPlayer("Alicia", "alicia@test.com");
+
+        var response = playerController.streamAllPlayers("ali", true, null, null, null, null);
+        var out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        var json = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, json.size());
+        assertEquals("Alice", json.get(0).get("name").asText());
+        assertEquals("Alicia", json.get(1).get("name").asText());
+        var future = LocalDateTime.now().plusDays(1);
+        out.reset();
+        playerController.streamAllPlayers(null, false, future, null, null, null).getBody().writeTo(out);
+        assertEquals(0, objectMapper.readTree(out.toByteArray()).size());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                playerController.streamAllPlayers(null, false, null, null, 10, null).getStatusCode());
+    }
+
     // === Update Player Tests ===
 
     @Test
@@ -152,7 +363,7 @@ class PlayerControllerTest {
         bob.getStats().incrementGamesPlayed();
         bob.getStats().incrementGamesWon();
 
-        var response = playerController.getLeaderboard(10);
+        var response = playerController.getLeaderboard(10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
@@ -171,12 +382,26 @@ class PlayerControllerTest {
         p2.getStats().incrementGamesPlayed();
         p3.getStats().incrementGamesPlayed();
 
-        var response = playerController.getLeaderboard(2);
+        var response = playerController.getLeaderboard(2, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
     }
 
+    @Test
+    void getLeaderboard_withMatchingETag_shouldReturnNotModifiedUntilStatsChange() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        alice.getStats().incrementGamesPlayed();
+
+        var etag = playerController.getLeaderboard(10, null).getHeaders().getETag();
+        assertEquals(HttpStatus.NOT_MODIFIED, playerController.getLeaderboard(10, etag).getStatusCode());
+
+        alice.getStats().incrementGamesWon();
+        var changed = playerController.getLeaderboard(10, etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
     // === Activity Rankings Tests ===
 
     @Test
@@ -189,7 +414,7 @@ class PlayerControllerTest {
         active.getStats().incrementGamesPlayed();
         lazy.getStats().incrementGamesPlayed();
 
-        var response = playerController.getMostActivePlayers(10);
+        var response = playerController.getMostActivePlayers(10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
@@ -213,7 +438,7 @@ class PlayerControllerTest {
         inefficient.getStats().incrementGamesWon();
         inefficient.getStats().addMoves(10);
 
-        var response = playerController.getMostEfficientPlayers(10);
+        var response = playerController.getMostEfficientPlayers(10, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
@@ -0,0 +1,280 @@
+package com.example.loadtest;
+
+import com.example.Application;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load generator for the REST API. Sessions arrive at a fixed rate (open model, so a slow server does
+ * not slow the arrivals down); each one registers two players, creates a game, joins it with both, plays it
+ * to the end with random moves and reads back the game and the leaderboard. Every arrival rate runs as its own
+ * stage with its own per-endpoint report.
+ *
+ * Without --url the application is started in-process on a random port, and options this class does not know
+ * are passed to it as properties, e.g. --rate-limit.requests-per-window=1000.
+ * Run with: mvn -Pload-test test -Dload.args="--rates=50,100,200 --duration=30"
+ */
+public final class LoadGenerator {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "rates", "50",          // session arrivals per second, one stage per value
+            "duration", "30",       // seconds per stage
+            "warmup", "5",          // seconds at the first rate before measuring
+            "concurrency", "1000",  // sessions in flight at most (two players each)
+            "clients", "0",         // distinct X-Forwarded-For addresses; 0 gives every player its own
+            "timeout", "10");       // per-request timeout in seconds
+
+    private final URI baseUri;
+    private final int clients;
+    private final Duration timeout;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ThreadPoolExecutor sessions;
+    // Makes emails unique across runs against the same server
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong playerCount = new AtomicLong();
+
+    LoadGenerator(URI baseUri, int concurrency, int clients, Duration timeout) {
+        this.baseUri = baseUri;
+        this.clients = clients;
+        this.timeout = timeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        // No queue: an arrival either gets an idle session thread or is counted as skipped
+        this.sessions = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    var thread = new Thread(runnable, "load-session");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new HashMap<>(DEFAULTS);
+        var appArgs = new ArrayList<String>();
+        String url = null;
+        for (var arg : args) {
+            var eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0)
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            var name = arg.substring(2, eq);
+            if (name.equals("url"))
+                url = arg.substring(eq + 1);
+            else if (DEFAULTS.containsKey(name))
+                options.put(name, arg.substring(eq + 1));
+            else
+                appArgs.add(arg);
+        }
+
+        ConfigurableApplicationContext app = null;
+        if (url == null) {
+            app = startApplication(appArgs);
+            url = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+        } else if (!appArgs.isEmpty()) {
+            System.out.println("Ignoring application options with --url: " + appArgs);
+        }
+        var rates = Arrays.stream(options.get("rates").split(",")).mapToDouble(Double::parseDouble).toArray();
+        var generator = new LoadGenerator(URI.create(url), Integer.parseInt(options.get("concurrency")),
+                Integer.parseInt(options.get("clients")), Duration.ofSeconds(Long.parseLong(options.get("timeout"))));
+        try {
+            generator.run(rates, Duration.ofSeconds(Long.parseLong(options.get("duration"))),
+                    Duration.ofSeconds(Long.parseLong(options.get("warmup"))));
+        } finally {
+            generator.close();
+            if (app != null)
+                app.close();
+        }
+    }
+
+    /** The application on a random port, with the given {@code --name=value} properties. */
+    static ConfigurableApplicationContext startApplication(List<String> appArgs) {
+        var args = new ArrayList<>(appArgs);
+        args.add("--server.port=0");
+        // One access-log line per request would drown the report; the entries are still queued and drained
+        if (appArgs.stream().noneMatch(arg -> arg.startsWith("--logging.level.com.example.config.AccessLog=")))
+            args.add("--logging.level.com.example.config.AccessLog=WARN");
+        return SpringApplication.run(Application.class, args.toArray(String[]::new));
+    }
+
+    void run(double[] rates, Duration duration, Duration warmup) throws InterruptedException {
+        System.out.printf("Load test against %s%n", baseUri);
+        if (!warmup.isZero()) {
+            runStage(rates[0], warmup);
+            System.out.printf("Warmup: %.1f sessions/s for %ds (not reported)%n", rates[0], warmup.toSeconds());
+        }
+        for (int i = 0; i < rates.length; i++) {
+            var start = System.nanoTime();
+            var stats = runStage(rates[i], duration);
+            var elapsed = System.nanoTime() - start;
+            System.out.printf("%nStage %d/%d: %.1f sessions/s for %ds (%.1fs including drain)%n", i + 1,
+                    rates.length, rates[i], duration.toSeconds(), elapsed / 1e9);
+            stats.print(System.out, elapsed);
+        }
+    }
+
+    /**
+     * Start {@code count} sessions at once, and wait for them all: a closed burst rather than arrivals at a rate.
+     * Beyond the concurrency, each further session starts as a session thread frees up.
+     */
+    LoadStats burst(int count) throws InterruptedException {
+        var stats = new LoadStats();
+        for (int i = 0; i < count; i++) {
+            stats.sessionStarted();
+            while (true) {
+                try {
+                    sessions.execute(() -> playSession(stats));
+                    break;
+                } catch (RejectedExecutionException e) {
+                    // Every session thread busy, or one just finishing and not yet waiting for the next
+                    Thread.sleep(1);
+                }
+            }
+        }
+        while (stats.inFlight() > 0)
+            Thread.sleep(10);
+        return stats;
+    }
+
+    void close() {
+        sessions.shutdownNow();
+    }
+
+    /** Start sessions at the given rate for the duration, then wait for the in-flight ones to finish. */
+    private LoadStats runStage(double rate, Duration duration) throws InterruptedException {
+        var stats = new LoadStats();
+        var intervalNanos = (long) (1_000_000_000 / rate);
+        var start = System.nanoTime();
+        var end = start + duration.toNanos();
+        // Arrivals are scheduled on the clock, not after the previous one, so a stall does not lower the rate
+        for (long next = start; next < end; next += intervalNanos) {
+            var wait = next - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            stats.sessionStarted();
+            try {
+                sessions.execute(() -> playSession(stats));
+            } catch (RejectedExecutionException e) {
+                stats.sessionFinished(false);
+                stats.sessionSkipped();
+            }
+        }
+        while (stats.inFlight() > 0)
+            Thread.sleep(10);
+        return stats;
+    }
+
+    private void playSession(LoadStats stats) {
+        var success = false;
+        try {
+            var x = registerPlayer(stats);
+            var o = registerPlayer(stats);
+            var gameId = call(stats, "POST /games", x.ip(), "POST", "/games",
+                    Map.of("name", "load-" + runId)).path("id").asText();
+            call(stats, "POST /games/{id}/join", x.ip(), "POST", "/games/" + gameId + "/join",
+                    Map.of("playerId", x.id()));
+            call(stats, "POST /games/{id}/join", o.ip(), "POST", "/games/" + gameId + "/join",
+                    Map.of("playerId", o.id()));
+
+            // The first player to join moves first; play random free cells until the game ends
+            var cells = shuffledCells();
+            for (int i = 0; i < cells.length; i++) {
+                var player = i % 2 == 0 ? x : o;
+                var game = call(stats, "POST /games/{id}/moves", player.ip(), "POST", "/games/" + gameId + "/moves",
+                        Map.of("playerId", player.id(), "row", cells[i] / 3, "col", cells[i] % 3));
+                if (!"ACTIVE".equals(game.path("status").asText()))
+                    break;
+            }
+            call(stats, "GET /games/{id}", x.ip(), "GET", "/games/" + gameId, null);
+            call(stats, "GET /api/players/leaderboard", o.ip(), "GET", "/api/players/leaderboard", null);
+            success = true;
+        } catch (SessionAborted e) {
+            // Already counted against the endpoint that failed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stats.sessionFinished(success);
+        }
+    }
+
+    private VirtualPlayer registerPlayer(LoadStats stats) throws SessionAborted, InterruptedException {
+        var n = playerCount.incrementAndGet();
+        var ip = clientIp(clients == 0 ? n : n % clients);
+        var player = call(stats, "POST /api/players", ip, "POST", "/api/players",
+                Map.of("name", "Load Player " + n, "email", "load-" + runId + "-" + n + "@load.test"));
+        return new VirtualPlayer(player.path("id").asText(), ip);
+    }
+
+    /** Send one request and record it; any non-2xx response or transport failure aborts the session. */
+    private JsonNode call(LoadStats stats, String endpoint, String ip, String method, String path, Object body)
+            throws SessionAborted, InterruptedException {
+        try {
+            var request = HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("X-Forwarded-For", ip)
+                    .method(method, body == null
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                    .build();
+            var start = System.nanoTime();
+            var response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            stats.record(endpoint, response.statusCode(), System.nanoTime() - start);
+            if (response.statusCode() / 100 != 2)
+                throw new SessionAborted();
+            return mapper.readTree(response.body());
+        } catch (IOException e) {
+            stats.recordFailure(endpoint);
+            throw new SessionAborted();
+        }
+    }
+
+    private static int[] shuffledCells() {
+        var cells = new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 };
+        var random = ThreadLocalRandom.current();
+        for (int i = cells.length - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var tmp = cells[i];
+            cells[i] = cells[j];
+            cells[j] = tmp;
+        }
+        return cells;
+    }
+
+    private static String clientIp(long n) {
+        return "10." + (n >> 16 & 255) + "." + (n >> 8 & 255) + "." + (n & 255);
+    }
+
+    private record VirtualPlayer(String id, String ip) {
+    }
+
+    /** Ends a session early; carries no stack trace since it is control flow, not a bug. */
+    private static final class SessionAborted extends Exception {
+        SessionAborted() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.loadtest;
+
+import com.example.config.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes of one load stage: latency and status counts per endpoint, and session totals. Latency percentiles
+ * cover requests the application answered; 429s and transport failures are only counted, so fast rejections
+ * do not flatter the percentiles.
+ */
+final class LoadStats {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    void record(String endpoint, int status, long nanos) {
+        var stats = endpoint(endpoint);
+        if (status == 429) {
+            stats.rateLimited.increment();
+            return;
+        }
+        stats.latency.record(nanos);
+        if (status >= 400)
+            stats.errors.increment();
+        else
+            stats.ok.increment();
+    }
+
+    /** A request that got no HTTP response (connection refused, timeout). */
+    void recordFailure(String endpoint) {
+        endpoint(endpoint).failures.increment();
+    }
+
+    void sessionStarted() {
+        started.increment();
+        inFlight.incrementAndGet();
+    }
+
+    void sessionFinished(boolean success) {
+        (success ? completed : failed).increment();
+        inFlight.decrementAndGet();
+    }
+
+    /** An arrival that found every session slot busy; the generator is not keeping up with the rate. */
+    void sessionSkipped() {
+        skipped.increment();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    void print(PrintStream out, long elapsedNanos) {
+        var seconds = elapsedNanos / 1e9;
+        out.printf("  sessions: %d started, %d completed, %d failed, %d skipped (all slots busy)%n",
+                started.sum(), completed.sum(), failed.sum(), skipped.sum());
+        out.printf("  %-30s %9s %9s %8s %8s %8s %8s %8s %7s %7s%n", "endpoint", "requests", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "err %", "429 %");
+        new TreeMap<>(endpoints).forEach((name, stats) -> {
+            var snapshot = stats.latency.snapshot();
+            var ok = stats.ok.sum();
+            var errors = stats.errors.sum() + stats.failures.sum();
+            var rateLimited = stats.rateLimited.sum();
+            var total = ok + errors + rateLimited;
+            out.printf("  %-30s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7.2f %7.2f%n", name, total, total / seconds,
+                    millis(snapshot.valueAt(0.5)), millis(snapshot.valueAt(0.9)), millis(snapshot.valueAt(0.99)),
+                    millis(snapshot.valueAt(0.999)), millis(snapshot.max()),
+                    percent(errors, total), percent(rateLimited, total));
+        });
+    }
+
+    private Endpoint endpoint(String name) {
+        var stats = endpoints.get(name);
+        return stats != null ? stats : endpoints.computeIfAbsent(name, n -> new Endpoint());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    private static final class Endpoint {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+}
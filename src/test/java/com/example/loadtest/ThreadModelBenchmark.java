@@ -0,0 +1,99 @@
+package com.example.loadtest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform against virtual request threads in the running application: each trial starts the app in-process with
+ * {@code spring.threads.virtual.enabled} off or on, and every operation is a burst of {@code connections}
+ * {@link LoadGenerator} sessions at once, each on its own connection, playing a whole game over HTTP. The score is
+ * the time to finish the burst; the LoadGenerator report of each iteration (latency percentiles, errors) is printed
+ * after it.
+ *
+ * The app runs with its defaults except for what would measure something other than the request threads: rate
+ * limiting is lifted, Tomcat accepts every connection, and players and games stay in memory (no H2 file, journal or
+ * archive). The virtual mode needs Java 21 or later at run time and fails its setup on older ones.
+ * Run with: mvn -Pbenchmark test -Djmh.args="ThreadModelBenchmark -p connections=20000"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({ "platform", "virtual" })
+        String threads;
+
+        @Param({ "1000", "10000" })
+        int connections;
+
+        ConfigurableApplicationContext app;
+        LoadGenerator generator;
+        LoadStats last;
+        long started;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            var virtual = "virtual".equals(threads);
+            if (virtual && Runtime.version().feature() < 21)
+                throw new IllegalStateException("Virtual threads need Java 21 or later");
+            app = LoadGenerator.startApplication(List.of(
+                    "--spring.threads.virtual.enabled=" + virtual,
+                    "--server.tomcat.max-connections=" + 2 * connections,
+                    "--server.tomcat.accept-count=" + connections,
+                    "--rate-limit.requests-per-window=" + Integer.MAX_VALUE / 2,
+                    "--spring.datasource.url=jdbc:h2:mem:thread-model;DB_CLOSE_ON_EXIT=FALSE",
+                    "--player-store.enabled=false",
+                    "--game-journal.enabled=false",
+                    "--game-retention.enabled=false"));
+            var port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            generator = new LoadGenerator(URI.create("http://localhost:" + port), connections, 0,
+                    Duration.ofSeconds(60));
+        }
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            started = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            if (last != null) {
+                System.out.println();
+                last.print(System.out, System.nanoTime() - started);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            generator.close();
+            app.close();
+        }
+    }
+
+    @Benchmark
+    public LoadStats serveAll(Server server) throws InterruptedException {
+        return server.last = server.generator.burst(server.connections);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the move/win-detection path of {@link Game}.
+ * Run with: mvn -Pbenchmark test -Djmh.args="GameBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    private static final int[] DRAW = { 0, 1, 2, 5, 3, 6, 4, 8, 7 };
+    private static final int[] WIN = { 0, 3, 1, 4, 2 };
+    private static final int[] NO_MOVES = {};
+
+    private Player alice;
+    private Player bob;
+    private int[][] randomGames;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        alice = new Player("Alice", "alice@bench.com");
+        bob = new Player("Bob", "bob@bench.com");
+        var random = new Random(42);
+        randomGames = new int[1024][];
+        for (int g = 0; g < randomGames.length; g++) {
+            var order = new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 };
+            for (int i = order.length - 1; i > 0; i--) {
+                var j = random.nextInt(i + 1);
+                var tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            randomGames[g] = order;
+        }
+    }
+
+    /** Construction and joins only; subtract from the play* scores to isolate the move path. */
+    @Benchmark
+    public Game newGame() {
+        return play(NO_MOVES);
+    }
+
+    @Benchmark
+    public Game playToDraw() {
+        return play(DRAW);
+    }
+
+    @Benchmark
+    public Game playToWin() {
+        return play(WIN);
+    }
+
+    @Benchmark
+    public Game playRandomGame() {
+        next = (next + 1) & (randomGames.length - 1);
+        return play(randomGames[next]);
+    }
+
+    private Game play(int[] moves) {
+        var game = new Game("bench");
+        game.addPlayer(alice);
+        game.addPlayer(bob);
+        for (int i = 0; i < moves.length && game.getStatus() == Game.GameStatus.ACTIVE; i++)
+            game.makeMove(game.getCurrentPlayer(), moves[i]);
+        return game;
+    }
+}
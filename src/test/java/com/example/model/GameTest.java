@@ -2,8 +2,12 @@ package com.example.model;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GameTest {
@@ -64,6 +68,63 @@ class GameTest {
         assertEquals(1, player1.getStats().getGamesDrawn());
     }
 
+    @Test
+    void testColumnAndDiagonalWins() {
+        game.makeMove(player1, 1);
+        game.makeMove(player2, 0);
+        game.makeMove(player1, 2);
+        game.makeMove(player2, 4);
+        game.makeMove(player1, 5);
+        game.makeMove(player2, 8);
+
+        assertEquals(Game.GameStatus.COMPLETED, game.getStatus());
+        assertEquals(player2, game.getWinner());
+
+        var columnGame = new Game("Column");
+        columnGame.addPlayer(player1);
+        columnGame.addPlayer(player2);
+        columnGame.makeMove(player1, 2);
+        columnGame.makeMove(player2, 0);
+        columnGame.makeMove(player1, 5);
+        columnGame.makeMove(player2, 1);
+        columnGame.makeMove(player1, 8);
+
+        assertEquals(Game.GameStatus.COMPLETED, columnGame.getStatus());
+        assertEquals(player1, columnGame.getWinner());
+    }
+
+    @Test
+    void testBoardShape() {
+        game.makeMove(player1, 4);
+        game.makeMove(player2, 0);
+
+        assertEquals(Arrays.asList("O", null, null, null, "X", null, null, null, null), game.getBoard());
+        assertTrue(game.isOccupied(4));
+        assertFalse(game.isOccupied(8));
+    }
+
+    @Test
+    void testVersionAndCompactViews() {
+        assertEquals(2, game.getVersion());
+        game.makeMove(player1, 4);
+        game.makeMove(player2, 0);
+        assertFalse(game.makeMove(player2, 1));
+        assertEquals(4, game.getVersion());
+
+        var state = GameState.of(game);
+        assertEquals("O---X----", state.board());
+        assertEquals(player1.getId(), state.xPlayerId());
+        assertEquals(player1.getId(), state.currentPlayerId());
+
+        var delta = GameDelta.of(game, 3);
+        assertEquals("O--------", delta.changes());
+        assertEquals(4, delta.version());
+        assertNull(delta.xPlayerId());
+        assertEquals("O---X----", GameDelta.of(game, 0).changes());
+        assertEquals(player2.getId(), GameDelta.of(game, 1).oPlayerId());
+        assertEquals("---------", GameDelta.of(game, 4).changes());
+    }
+
     @Test
     void testInvalidMove() {
         game.makeMove(player1, 0);
@@ -0,0 +1,72 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PerfectPlayTest {
+
+    private final PerfectPlay table = new PerfectPlay();
+
+    @Test
+    void table_shouldHoldEveryPositionUpToSymmetry() {
+        assertEquals(765, table.positions());
+        assertEquals(PerfectPlay.DRAW, table.value(0, 0));
+        assertEquals(Game.FULL_BOARD, table.bestMoves(0, 0));
+    }
+
+    @Test
+    void bestMoves_shouldBeOrientedLikeTheBoardAskedAbout() {
+        // X in a corner: only the center holds the draw for O
+        assertEquals(1 << 4, table.bestMoves(1 << 8, 0));
+        // X at 0 and 1, O at 3 and 4: X completes the top row
+        assertEquals(PerfectPlay.WIN, table.value(0b011, 0b011_000));
+        assertEquals(1 << 2, table.bestMoves(0b011, 0b011_000));
+        // X in opposite corners around O's center: taking a corner lets X fork, so only the edges draw
+        assertEquals(PerfectPlay.DRAW, table.value(0b100_000_001, 0b000_010_000));
+        assertEquals(0b010_101_010, table.bestMoves(0b100_000_001, 0b000_010_000));
+    }
+
+    @Test
+    void perfectPlay_shouldNeverLoseToRandomMoves() {
+        var random = ThreadLocalRandom.current();
+        for (int round = 0; round < 500; round++) {
+            var tableIsX = round % 2 == 0;
+            int x = 0, o = 0;
+            var xToMove = true;
+            while (!won(x) && !won(o) && (x | o) != Game.FULL_BOARD) {
+                var free = ~(x | o) & Game.FULL_BOARD;
+                var moves = xToMove == tableIsX ? table.bestMoves(x, o) : free;
+                var cell = nthBit(moves, random.nextInt(Integer.bitCount(moves)));
+                if (xToMove)
+                    x |= 1 << cell;
+                else
+                    o |= 1 << cell;
+                xToMove = !xToMove;
+            }
+            assertFalse(won(tableIsX ? o : x), "Lost a game");
+        }
+    }
+
+    @Test
+    void value_shouldRejectOverlappingMasks() {
+        assertThrows(IllegalArgumentException.class, () -> table.value(1, 1));
+    }
+
+    private static int nthBit(int mask, int n) {
+        for (; n > 0; n--)
+            mask &= mask - 1;
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    private static boolean won(int mask) {
+        for (var line : Game.WIN_LINES)
+            if ((mask & line) == line)
+                return true;
+        return false;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Player;
+import com.example.service.ComputerOpponent.Difficulty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComputerOpponentTest {
+
+    private PlayerService playerService;
+    private GameService gameService;
+    private ComputerOpponent opponent;
+    private Player alice;
+
+    @BeforeEach
+    void setUp() {
+        playerService = new PlayerService();
+        alice = playerService.createPlayer("Alice", "alice@test.com");
+        gameService = new GameService(playerService);
+        opponent = new ComputerOpponent(gameService, playerService);
+        opponent.start();
+    }
+
+    @Test
+    void makeMove_shouldBeAnsweredInTheSameCall() {
+        var game = opponent.play(alice.getId(), Difficulty.PERFECT);
+        assertEquals(Game.GameStatus.ACTIVE, game.getStatus());
+        assertEquals(alice, game.getCurrentPlayer());
+
+        var answered = gameService.makeMove(game.getId(), alice.getId(), 0, 0);
+
+        assertEquals(2, answered.getMoveCount());
+        assertEquals(alice, answered.getCurrentPlayer());
+        // The center is the only reply to a corner that does not lose
+        assertEquals("O", answered.getBoard().get(4));
+        assertEquals(4, answered.getVersion());
+    }
+
+    @Test
+    void computerPlayers_shouldOnlyPlayTheGamesStartedAgainstThem() {
+        var computer = opponent.player(Difficulty.HARD);
+        var game = gameService.createGame("Open");
+        gameService.joinGame(game.getId(), alice.getId());
+
+        assertThrows(GameService.InvalidGameStateException.class,
+                () -> gameService.joinGame(game.getId(), computer.getId()));
+        assertThrows(GameService.InvalidGameStateException.class,
+                () -> new Matchmaker(gameService, playerService).match(computer.getId()));
+        assertThrows(PlayerService.ReservedPlayerException.class, () -> playerService.deletePlayer(computer.getId()));
+    }
+
+    @Test
+    void perfect_shouldNeverLose() {
+        var computer = opponent.player(Difficulty.PERFECT);
+        for (int round = 0; round < 200; round++) {
+            var game = playRandomly(opponent.play(alice.getId(), Difficulty.PERFECT));
+            assertNotEquals(alice, game.getWinner());
+        }
+        assertEquals(0, computer.getStats().getGamesLost());
+        assertEquals(200, computer.getStats().getGamesPlayed());
+    }
+
+    @Test
+    void easy_shouldMakeMistakes() {
+        var perfectMoves = new ComputerOpponent(gameService, new PlayerService());
+        var losses = 0;
+        for (int round = 0; round < 100; round++) {
+            var game = opponent.play(alice.getId(), Difficulty.EASY);
+            while (game.getStatus() == Game.GameStatus.ACTIVE) {
+                var cell = perfectMoves.chooseMove(game, Difficulty.PERFECT);
+                game = gameService.makeMove(game.getId(), alice.getId(), cell / 3, cell % 3);
+            }
+            if (alice.equals(game.getWinner()))
+                losses++;
+        }
+        assertTrue(losses > 0);
+    }
+
+    @Test
+    void play_shouldNotPitTheComputerAgainstItself() {
+        var computer = opponent.player(Difficulty.HARD);
+        assertThrows(GameService.InvalidGameStateException.class,
+                () -> opponent.play(computer.getId(), Difficulty.PERFECT));
+    }
+
+    private Game playRandomly(Game game) {
+        var random = ThreadLocalRandom.current();
+        while (game.getStatus() == Game.GameStatus.ACTIVE) {
+            int cell;
+            do {
+                cell = random.nextInt(9);
+            } while (game.isOccupied(cell));
+            game = gameService.makeMove(game.getId(), alice.getId(), cell / 3, cell % 3);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private PlayerService playerService;
+    private GameArchive archive;
+    private GameService gameService;
+    private Player alice;
+    private Player bob;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        playerService = new PlayerService();
+        alice = playerService.createPlayer("Alice", "alice@test.com");
+        bob = playerService.createPlayer("Bob", "bob@test.com");
+        archive = openArchive();
+        gameService = new GameService(playerService, archive);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.close();
+    }
+
+    @Test
+    void archiveFinished_shouldMoveFinishedGamesOutButKeepThemFetchable() throws IOException {
+        var won = playWonGame("Won");
+        var active = gameService.createGame("Active");
+        gameService.joinGame(active.getId(), alice.getId());
+        gameService.joinGame(active.getId(), bob.getId());
+        var waiting = gameService.createGame("Waiting");
+
+        assertEquals(1, gameService.archiveFinished(Long.MAX_VALUE, 0));
+
+        assertEquals(2, gameService.findAll().size());
+        var archived = gameService.findById(won.getId()).orElseThrow();
+        assertEquals("Won", archived.getName());
+        assertEquals(won.getBoard(), archived.getBoard());
+        assertEquals(Game.GameStatus.COMPLETED, archived.getStatus());
+        assertEquals(alice, archived.getWinner());
+        assertEquals(won.getVersion(), archived.getVersion());
+        var stats = gameService.getGameStats();
+        assertEquals(3, stats.totalGames());
+        assertEquals(1, stats.completedGames());
+        assertTrue(gameService.findById(waiting.getId()).isPresent());
+
+        assertTrue(gameService.deleteGame(won.getId()));
+        assertTrue(gameService.findById(won.getId()).isEmpty());
+        assertEquals(0, gameService.getGameStats().completedGames());
+    }
+
+    @Test
+    void archiveFinished_beyondCap_shouldMoveOldestFinishedFirst() throws IOException {
+        var first = playWonGame("First");
+        var second = playWonGame("Second");
+        var third = playWonGame("Third");
+
+        assertEquals(2, gameService.archiveFinished(0, 1));
+
+        assertEquals(List.of(third), gameService.findAll());
+        assertEquals(2, archive.size());
+        assertEquals("First", gameService.findById(first.getId()).orElseThrow().getName());
+        assertEquals("Second", gameService.findById(second.getId()).orElseThrow().getName());
+        assertEquals(0, gameService.archiveFinished(0, 1));
+    }
+
+    @Test
+    void reopen_shouldRebuildIndexAndCounts() throws IOException {
+        var won = playWonGame("Won");
+        var deleted = playWonGame("Deleted");
+        gameService.archiveFinished(Long.MAX_VALUE, 0);
+        gameService.deleteGame(deleted.getId());
+        archive.close();
+
+        archive = openArchive();
+        var restarted = new GameService(playerService, archive);
+        assertEquals(1, archive.size());
+        assertEquals(won.getBoard(), restarted.findById(won.getId()).orElseThrow().getBoard());
+        assertTrue(restarted.findById(deleted.getId()).isEmpty());
+        assertEquals(1, restarted.getGameStats().completedGames());
+    }
+
+    @Test
+    void index_shouldGrowAndSurviveRemovals() throws IOException {
+        var games = new ArrayList<Game>();
+        for (var i = 0; i < 3000; i++)
+            games.add(playWonGame("G" + i));
+        gameService.archiveFinished(Long.MAX_VALUE, 0);
+        for (var i = 0; i < games.size(); i += 2)
+            assertTrue(gameService.deleteGame(games.get(i).getId()));
+
+        assertEquals(1500, archive.size());
+        for (var i = 0; i < games.size(); i++)
+            assertEquals(i % 2 == 1, archive.find(games.get(i).getId()).isPresent());
+    }
+
+    @Test
+    void reclaimWaiting_shouldDeleteIdleWaitingGamesOnly() {
+        var waiting = gameService.createGame("Waiting");
+        gameService.joinGame(waiting.getId(), alice.getId());
+        var active = gameService.createGame("Active");
+        gameService.joinGame(active.getId(), alice.getId());
+        gameService.joinGame(active.getId(), bob.getId());
+
+        assertEquals(0, gameService.reclaimWaiting(0));
+        assertEquals(1, gameService.reclaimWaiting(Long.MAX_VALUE));
+
+        assertTrue(gameService.findById(waiting.getId()).isEmpty());
+        assertTrue(gameService.findById(active.getId()).isPresent());
+        assertTrue(gameService.findWaitingGames().isEmpty());
+    }
+
+    private GameArchive openArchive() throws IOException {
+        var opened = new GameArchive(playerService);
+        ReflectionTestUtils.setField(opened, "dir", dir);
+        opened.open();
+        return opened;
+    }
+
+    /** A game Alice wins along the top row. */
+    private Game playWonGame(String name) {
+        var game = gameService.createGame(name);
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        for (var col = 0; col < 2; col++) {
+            gameService.makeMove(game.getId(), alice.getId(), 0, col);
+            gameService.makeMove(game.getId(), bob.getId(), 1, col);
+        }
+        return gameService.makeMove(game.getId(), alice.getId(), 0, 2);
+    }
+}
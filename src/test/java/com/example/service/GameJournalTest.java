@@ -0,0 +1,281 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Player;
+import com.example.service.GameJournal.JournalUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private PlayerService playerService;
+    private GameService gameService;
+    private Player alice;
+    private Player bob;
+    private GameJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        playerService = new PlayerService();
+        alice = playerService.createPlayer("Alice", "alice@test.com");
+        bob = playerService.createPlayer("Bob", "bob@test.com");
+        gameService = new GameService(playerService);
+        journal = journal(gameService, playerService);
+        journal.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.stop();
+    }
+
+    @Test
+    void replay_shouldRebuildGames() throws IOException {
+        var won = gameService.createGame("Won");
+        gameService.joinGame(won.getId(), alice.getId());
+        gameService.joinGame(won.getId(), bob.getId());
+        for (var col = 0; col < 2; col++) {
+            gameService.makeMove(won.getId(), alice.getId(), 0, col);
+            gameService.makeMove(won.getId(), bob.getId(), 1, col);
+        }
+        gameService.makeMove(won.getId(), alice.getId(), 0, 2);
+        var waiting = gameService.createGame(null);
+        gameService.joinGame(waiting.getId(), bob.getId());
+        var deleted = gameService.createGame("Deleted");
+        gameService.deleteGame(deleted.getId());
+        var gamesPlayed = alice.getStats().getGamesPlayed();
+
+        var restarted = restart();
+
+        var replayed = restarted.findById(won.getId()).orElseThrow();
+        assertEquals("Won", replayed.getName());
+        assertEquals(won.getCreatedAt(), replayed.getCreatedAt());
+        assertEquals(won.getBoard(), replayed.getBoard());
+        assertEquals(Game.GameStatus.COMPLETED, replayed.getStatus());
+        assertEquals(alice, replayed.getWinner());
+        assertEquals(won.getVersion(), replayed.getVersion());
+        var stillWaiting = restarted.findById(waiting.getId()).orElseThrow();
+        assertNull(stillWaiting.getName());
+        assertEquals(List.of(bob), stillWaiting.getPlayers());
+        assertTrue(restarted.findById(deleted.getId()).isEmpty());
+        assertEquals(List.of(stillWaiting), restarted.findWaitingGames());
+        // Stats are persisted with the players, not replayed
+        assertEquals(gamesPlayed, alice.getStats().getGamesPlayed());
+    }
+
+    @Test
+    void replay_shouldContinueAfterRestart() throws IOException {
+        var game = gameService.createGame("Twice");
+        gameService.joinGame(game.getId(), alice.getId());
+
+        var restarted = restart();
+        restarted.joinGame(game.getId(), bob.getId());
+        restarted.makeMove(game.getId(), alice.getId(), 1, 1);
+
+        var replayed = restart().findById(game.getId()).orElseThrow();
+        assertEquals(Game.GameStatus.ACTIVE, replayed.getStatus());
+        assertEquals("X", replayed.getBoard().get(4));
+        assertEquals(bob, replayed.getCurrentPlayer());
+        // Each startup carries on in the last segment instead of mapping a new one
+        assertEquals(List.of(dir.resolve("journal-0.log")), segments());
+    }
+
+    @Test
+    void replay_shouldIgnoreCorruptTail() throws IOException {
+        var game = gameService.createGame("Torn");
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        gameService.makeMove(game.getId(), alice.getId(), 0, 0);
+
+        // Change the cell of the move, the last record, as if the process died while writing it
+        var id = game.getId().length();
+        var create = 1 + 1 + id + 12 + 2 + "Torn".length() + 4;
+        var join = 1 + 1 + id + 1 + alice.getId().length() + 4;
+        var position = create + 2 * join + 1 + 1 + id;
+        journal.stop();
+        try (var file = new RandomAccessFile(dir.resolve("journal-0.log").toFile(), "rw")) {
+            file.seek(position);
+            assertEquals(0, file.readByte());
+            file.seek(position);
+            file.writeByte(4);
+        }
+
+        var restarted = restart();
+        var replayed = restarted.findById(game.getId()).orElseThrow();
+        assertEquals(Game.GameStatus.ACTIVE, replayed.getStatus());
+        assertNull(replayed.getBoard().get(0));
+        assertNull(replayed.getBoard().get(4));
+        assertEquals(2, replayed.getVersion());
+
+        // Written over the torn record, and replayed next time
+        restarted.makeMove(game.getId(), alice.getId(), 2, 2);
+        assertEquals("X", restart().findById(game.getId()).orElseThrow().getBoard().get(8));
+    }
+
+    @Test
+    void replay_shouldHoldBackGamesOfUnknownPlayersUntilTheyReturn() throws IOException {
+        var game = gameService.createGame("Orphaned");
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        gameService.makeMove(game.getId(), alice.getId(), 1, 1);
+        playerService.deletePlayer(alice.getId());
+
+        assertTrue(restart().findById(game.getId()).isEmpty());
+        assertTrue(restart().findById(game.getId()).isEmpty());
+        assertTrue(Files.exists(dir.resolve("unresolved.log")));
+
+        playerService.restore(alice);
+        var replayed = restart().findById(game.getId()).orElseThrow();
+        assertEquals(List.of(alice, bob), replayed.getPlayers());
+        assertEquals("X", replayed.getBoard().get(4));
+        assertFalse(Files.exists(dir.resolve("unresolved.log")));
+        // Journaled again, so it outlives the file it was held in
+        assertEquals(game.getBoard(), restart().findById(game.getId()).orElseThrow().getBoard());
+    }
+
+    @Test
+    void snapshot_shouldHoldBackGamesOfUnknownPlayers() throws IOException {
+        var game = gameService.createGame("Orphaned");
+        gameService.joinGame(game.getId(), alice.getId());
+        journal.snapshot();
+        playerService.deletePlayer(alice.getId());
+
+        assertTrue(restart().findById(game.getId()).isEmpty());
+        // Gone from this snapshot and the journal it replaces, but still held
+        journal.snapshot();
+        assertTrue(restart().findById(game.getId()).isEmpty());
+
+        playerService.restore(alice);
+        assertEquals(List.of(alice), restart().findById(game.getId()).orElseThrow().getPlayers());
+    }
+
+    @Test
+    void snapshot_shouldRecoverWithLaterChangesAndDropOlderHistory() throws IOException {
+        var won = gameService.createGame("Won");
+        gameService.joinGame(won.getId(), alice.getId());
+        gameService.joinGame(won.getId(), bob.getId());
+        gameService.makeMove(won.getId(), alice.getId(), 0, 0);
+        journal.snapshot();
+        for (var col = 0; col < 2; col++) {
+            gameService.makeMove(won.getId(), bob.getId(), 1, col);
+            gameService.makeMove(won.getId(), alice.getId(), 0, col + 1);
+        }
+        var later = gameService.createGame("Later");
+        gameService.joinGame(later.getId(), bob.getId());
+        journal.snapshot();
+        var deleted = gameService.createGame("Deleted");
+        gameService.deleteGame(deleted.getId());
+
+        assertTrue(Files.exists(dir.resolve("snapshot-2.bin")));
+        assertFalse(Files.exists(dir.resolve("snapshot-1.bin")));
+        assertFalse(Files.exists(dir.resolve("journal-0.log")));
+        var restarted = restart();
+        var replayed = restarted.findById(won.getId()).orElseThrow();
+        assertEquals(won.getBoard(), replayed.getBoard());
+        assertEquals(Game.GameStatus.COMPLETED, replayed.getStatus());
+        assertEquals(alice, replayed.getWinner());
+        assertEquals(won.getVersion(), replayed.getVersion());
+        assertEquals(List.of(bob), restarted.findById(later.getId()).orElseThrow().getPlayers());
+        assertTrue(restarted.findById(deleted.getId()).isEmpty());
+        assertEquals(2, restarted.getGameStats().totalGames());
+    }
+
+    @Test
+    void snapshot_withoutPlayerStore_shouldRestorePlayersToo() throws IOException {
+        ReflectionTestUtils.setField(journal, "playerStoreEnabled", false);
+        var game = gameService.createGame("Played");
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        gameService.makeMove(game.getId(), alice.getId(), 2, 2);
+        journal.snapshot();
+        journal.stop();
+
+        var players = new PlayerService();
+        var games = new GameService(players);
+        journal = journal(games, players);
+        ReflectionTestUtils.setField(journal, "playerStoreEnabled", false);
+        journal.open();
+
+        var restoredAlice = players.findByEmail("alice@test.com").orElseThrow();
+        assertEquals(alice.getId(), restoredAlice.getId());
+        assertEquals(1, restoredAlice.getStats().getTotalMoves());
+        var replayed = games.findById(game.getId()).orElseThrow();
+        assertEquals(List.of(restoredAlice, players.findById(bob.getId()).orElseThrow()), replayed.getPlayers());
+        assertEquals("X", replayed.getBoard().get(8));
+    }
+
+    @Test
+    void segmentFailure_shouldRefuseChangesOnceTheQueueIsFullUntilASnapshot() throws IOException {
+        var waiting = gameService.createGame("Waiting");
+        journal.stop();
+        gameService = new GameService(playerService);
+        journal = journal(gameService, playerService);
+        ReflectionTestUtils.setField(journal, "maxPending", 4);
+        ReflectionTestUtils.setField(journal, "enqueueTimeoutMs", 50L);
+        journal.open();
+        // The next segment cannot be created while a directory has its name
+        var blocker = Files.createDirectory(dir.resolve("journal-1.log"));
+        var name = "x".repeat(20_000);
+        var created = 1;
+        try {
+            for (; created < 1000; created++)
+                gameService.createGame(name);
+            throw new AssertionError("The journal never filled up");
+        } catch (JournalUnavailableException e) {
+            assertFalse(journal.isHealthy());
+        }
+        assertEquals(created, gameService.getGameStats().totalGames());
+        // Refused at once now; made in memory, where the snapshot finds it
+        assertThrows(JournalUnavailableException.class, () -> gameService.joinGame(waiting.getId(), alice.getId()));
+        assertThrows(JournalUnavailableException.class, () -> gameService.createGame("Refused"));
+
+        Files.delete(blocker);
+        journal.snapshot();
+        assertTrue(journal.isHealthy());
+        gameService.joinGame(waiting.getId(), bob.getId());
+
+        var restarted = restart();
+        assertEquals(created, restarted.getGameStats().totalGames());
+        assertEquals(List.of(alice, bob), restarted.findById(waiting.getId()).orElseThrow().getPlayers());
+    }
+
+    /** A new game service rebuilt from the journal, as on startup, with the same players. */
+    private GameService restart() throws IOException {
+        journal.stop();
+        var restarted = new GameService(playerService);
+        journal = journal(restarted, playerService);
+        journal.open();
+        return restarted;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+
+    private GameJournal journal(GameService service, PlayerService players) {
+        var journal = new GameJournal(service, players);
+        ReflectionTestUtils.setField(journal, "dir", dir);
+        ReflectionTestUtils.setField(journal, "segmentMb", 1);
+        return journal;
+    }
+}
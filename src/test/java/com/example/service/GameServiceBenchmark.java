@@ -0,0 +1,82 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link GameService} operations. Each benchmark thread plays its own games, so the locks
+ * are uncontended; compare -t 1 against -t N to see scaling across cores. The cost of the nine makeMove
+ * calls is the difference between playGame and createAndJoinGame.
+ * Run with: mvn -Pbenchmark test -Djmh.args="GameServiceBenchmark -t 4"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    private static final int[][] DRAW = { { 0, 0 }, { 0, 1 }, { 0, 2 }, { 1, 2 }, { 1, 0 }, { 2, 0 }, { 1, 1 },
+            { 2, 2 }, { 2, 1 } };
+
+    @State(Scope.Benchmark)
+    public static class Services {
+        final PlayerService playerService = new PlayerService();
+        final GameService gameService = new GameService(playerService);
+    }
+
+    @State(Scope.Thread)
+    public static class Opponents {
+        Player alice;
+        Player bob;
+
+        @Setup
+        public void setUp(Services services) {
+            var suffix = Thread.currentThread().getId();
+            alice = services.playerService.createPlayer("Alice", "alice" + suffix + "@bench.com");
+            bob = services.playerService.createPlayer("Bob", "bob" + suffix + "@bench.com");
+        }
+    }
+
+    /** Create and delete, keeping the game map at a steady size. */
+    @Benchmark
+    public Game createGame(Services services) {
+        var game = services.gameService.createGame("bench");
+        services.gameService.deleteGame(game.getId());
+        return game;
+    }
+
+    @Benchmark
+    public Game createAndJoinGame(Services services, Opponents opponents) {
+        var gameService = services.gameService;
+        var game = gameService.createGame("bench");
+        gameService.joinGame(game.getId(), opponents.alice.getId());
+        gameService.joinGame(game.getId(), opponents.bob.getId());
+        gameService.deleteGame(game.getId());
+        return game;
+    }
+
+    @Benchmark
+    public Game playGame(Services services, Opponents opponents) {
+        var gameService = services.gameService;
+        var game = gameService.createGame("bench");
+        gameService.joinGame(game.getId(), opponents.alice.getId());
+        gameService.joinGame(game.getId(), opponents.bob.getId());
+        for (var move : DRAW)
+            gameService.makeMove(game.getId(), game.getCurrentPlayer().getId(), move[0], move[1]);
+        gameService.deleteGame(game.getId());
+        return game;
+    }
+}
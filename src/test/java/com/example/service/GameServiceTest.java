@@ -1,12 +1,27 @@
 package com.example.service;
 
 import com.example.model.Game;
+import com.example.model.Player;
+import com.example.service.GameService.BatchOperation;
+import com.example.service.GameService.BatchOperationType;
+import com.example.service.GameService.BatchOutcome;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GameServiceTest {
 
@@ -82,4 +97,214 @@ class GameServiceTest {
         assertEquals(2, stats.totalGames());
         assertEquals(2, stats.waitingGames());
     }
+
+    @Test
+    void getGameStats_shouldTrackTransitionsAndDeletes() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        var waiting = gameService.createGame("Waiting");
+        var won = gameService.createGame("Won");
+        var abandoned = gameService.createGame("Abandoned");
+        gameService.joinGame(won.getId(), alice.getId());
+        gameService.joinGame(won.getId(), bob.getId());
+        gameService.joinGame(abandoned.getId(), alice.getId());
+        gameService.joinGame(abandoned.getId(), bob.getId());
+        for (var col = 0; col < 2; col++) {
+            gameService.makeMove(won.getId(), alice.getId(), 0, col);
+            gameService.makeMove(won.getId(), bob.getId(), 1, col);
+        }
+        gameService.makeMove(won.getId(), alice.getId(), 0, 2);
+
+        var stats = gameService.getGameStats();
+        assertEquals(3, stats.totalGames());
+        assertEquals(1, stats.waitingGames());
+        assertEquals(1, stats.activeGames());
+        assertEquals(1, stats.completedGames());
+        assertEquals(List.of(waiting), gameService.findWaitingGames());
+
+        gameService.deleteGame(abandoned.getId());
+        gameService.deleteGame(abandoned.getId());
+        stats = gameService.getGameStats();
+        assertEquals(2, stats.totalGames());
+        assertEquals(0, stats.activeGames());
+    }
+
+    @Test
+    void listeners_shouldSeeJoinsMovesAndDeletes() {
+        var events = new ArrayList<String>();
+        gameService.addListener(new GameService.GameListener() {
+            @Override
+            public void gameChanged(Game game, GameService.Change change) {
+                events.add(change + ":" + game.getStatus() + "/" + game.getMoveCount());
+            }
+
+            @Override
+            public void gameDeleted(String gameId) {
+                events.add("deleted");
+            }
+        });
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        var game = gameService.createGame("Test");
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        gameService.makeMove(game.getId(), alice.getId(), 0, 0);
+        assertThrows(GameService.InvalidMoveException.class,
+                () -> gameService.makeMove(game.getId(), alice.getId(), 0, 1));
+        gameService.deleteGame(game.getId());
+
+        assertEquals(List.of("JOINED:WAITING/0", "JOINED:ACTIVE/0", "MOVED:ACTIVE/1", "deleted"), events);
+    }
+
+    @Test
+    void joinGame_concurrentJoins_admitExactlyTwoPlayers() throws Exception {
+        var players = new ArrayList<Player>();
+        for (int i = 0; i < 8; i++)
+            players.add(playerService.createPlayer("P" + i, "p" + i + "@test.com"));
+
+        for (int round = 0; round < 200; round++) {
+            var game = gameService.createGame("Race " + round);
+            var joined = new AtomicInteger();
+            var tasks = new ArrayList<Callable<Void>>();
+            for (var player : players)
+                tasks.add(() -> {
+                    try {
+                        gameService.joinGame(game.getId(), player.getId());
+                        joined.incrementAndGet();
+                    } catch (GameService.InvalidGameStateException e) {
+                        assertEquals("Game is full", e.getMessage());
+                    }
+                    return null;
+                });
+            runConcurrently(tasks);
+
+            assertEquals(2, joined.get());
+            assertEquals(2, game.getPlayers().size());
+            assertEquals(Game.GameStatus.ACTIVE, game.getStatus());
+        }
+    }
+
+    @Test
+    void makeMove_concurrentMoves_neverLoseOrDuplicateMoves() throws Exception {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+
+        for (int round = 0; round < 200; round++) {
+            var game = gameService.createGame("Race " + round);
+            gameService.joinGame(game.getId(), alice.getId());
+            gameService.joinGame(game.getId(), bob.getId());
+
+            var accepted = new AtomicInteger();
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < 8; t++) {
+                var player = t % 2 == 0 ? alice : bob;
+                tasks.add(() -> {
+                    var random = ThreadLocalRandom.current();
+                    while (game.getStatus() == Game.GameStatus.ACTIVE) {
+                        try {
+                            gameService.makeMove(game.getId(), player.getId(), random.nextInt(3), random.nextInt(3));
+                            accepted.incrementAndGet();
+                        } catch (GameService.InvalidMoveException | GameService.InvalidGameStateException e) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            runConcurrently(tasks);
+
+            var xCount = Integer.bitCount(game.getXMask());
+            var oCount = Integer.bitCount(game.getOMask());
+            assertEquals(0, game.getXMask() & game.getOMask());
+            assertEquals(accepted.get(), game.getMoveCount());
+            assertEquals(game.getMoveCount(), xCount + oCount);
+            assertTrue(xCount - oCount == 0 || xCount - oCount == 1);
+        }
+        assertEquals(200, alice.getStats().getGamesPlayed());
+        assertEquals(200, bob.getStats().getGamesPlayed());
+        assertEquals(alice.getStats().getGamesWon(), bob.getStats().getGamesLost());
+        assertEquals(bob.getStats().getGamesWon(), alice.getStats().getGamesLost());
+    }
+
+    @Test
+    void applyBatch_shouldKeepEachGamesOrderAndReportEveryOperation() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        var games = new ArrayList<Game>();
+        var operations = new ArrayList<BatchOperation>();
+        for (int i = 0; i < 50; i++)
+            games.add(gameService.createGame("Batch " + i));
+        // Interleaved across games; within each game, joins then a won game for Alice
+        for (var game : games) {
+            operations.add(new BatchOperation(BatchOperationType.JOIN, game.getId(), alice.getId(), null, null));
+            operations.add(new BatchOperation(BatchOperationType.JOIN, game.getId(), bob.getId(), null, null));
+        }
+        for (var col = 0; col < 3; col++) {
+            for (var game : games) {
+                operations.add(new BatchOperation(BatchOperationType.MOVE, game.getId(), alice.getId(), 0, col));
+                if (col < 2)
+                    operations.add(new BatchOperation(BatchOperationType.MOVE, game.getId(), bob.getId(), 1, col));
+            }
+        }
+        operations.add(new BatchOperation(BatchOperationType.MOVE, games.get(0).getId(), bob.getId(), 2, 2));
+        operations.add(new BatchOperation(BatchOperationType.JOIN, "missing", alice.getId(), null, null));
+        operations.add(new BatchOperation(BatchOperationType.MOVE, games.get(1).getId(), bob.getId(), 2, 5));
+
+        var results = gameService.applyBatch(operations);
+
+        assertEquals(operations.size(), results.size());
+        for (int i = 0; i < operations.size() - 3; i++)
+            assertEquals(BatchOutcome.OK, results.get(i).outcome(), results.get(i).error());
+        var lastMove = results.get(operations.size() - 4).game();
+        assertEquals(Game.GameStatus.COMPLETED, lastMove.status());
+        assertEquals("XXXOO----", lastMove.board());
+        assertEquals(BatchOutcome.REJECTED, results.get(operations.size() - 3).outcome());
+        assertEquals(BatchOutcome.NOT_FOUND, results.get(operations.size() - 2).outcome());
+        assertEquals(BatchOutcome.REJECTED, results.get(operations.size() - 1).outcome());
+        assertEquals(50, alice.getStats().getGamesWon());
+        for (var game : games)
+            assertEquals(alice, gameService.findById(game.getId()).orElseThrow().getWinner());
+    }
+
+    @Test
+    void applyBatch_unexpectedFailure_shouldOnlyFailItsOperation() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var failing = gameService.createGame("Failing");
+        var fine = gameService.createGame("Fine");
+        gameService.addListener(new GameService.GameListener() {
+            @Override
+            public void gameChanged(Game game, GameService.Change change) {
+                if (game.getId().equals(failing.getId()))
+                    throw new UncheckedIOException(new IOException("disk full"));
+            }
+
+            @Override
+            public void gameDeleted(String gameId) {
+            }
+        });
+
+        var results = gameService.applyBatch(List.of(
+                new BatchOperation(BatchOperationType.JOIN, failing.getId(), alice.getId(), null, null),
+                new BatchOperation(BatchOperationType.JOIN, fine.getId(), alice.getId(), null, null)));
+
+        assertEquals(BatchOutcome.FAILED, results.get(0).outcome());
+        assertTrue(results.get(0).error().contains("disk full"));
+        assertEquals(BatchOutcome.OK, results.get(1).outcome());
+    }
+
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        var executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            var start = new CountDownLatch(1);
+            var futures = tasks.stream().map(task -> executor.submit(() -> {
+                start.await();
+                return task.call();
+            })).toList();
+            start.countDown();
+            for (var future : futures)
+                future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,175 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.service.GameService.PlayerNotFoundException;
+import com.example.service.Matchmaker.MatchStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchmakerTest {
+
+    private PlayerService playerService;
+    private GameService gameService;
+    private Matchmaker matchmaker;
+
+    @BeforeEach
+    void setUp() {
+        playerService = new PlayerService();
+        gameService = new GameService(playerService);
+        matchmaker = new Matchmaker(gameService, playerService);
+    }
+
+    @Test
+    void match_shouldPairWithWaitingPlayerInNewActiveGame() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+
+        var waiting = matchmaker.match(alice.getId());
+        assertEquals(MatchStatus.WAITING, waiting.status());
+        assertNull(waiting.gameId());
+
+        var matched = matchmaker.match(bob.getId());
+        assertEquals(MatchStatus.MATCHED, matched.status());
+        var game = gameService.findById(matched.gameId()).orElseThrow();
+        assertEquals(Game.GameStatus.ACTIVE, game.getStatus());
+        assertEquals(List.of(alice, bob), game.getPlayers());
+        assertEquals(matched.gameId(), matchmaker.findTicket(waiting.ticketId()).orElseThrow().gameId());
+        assertTrue(gameService.findWaitingGames().isEmpty());
+    }
+
+    @Test
+    void match_whenAlreadyWaiting_shouldReturnSameTicket() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+
+        var first = matchmaker.match(alice.getId());
+        var second = matchmaker.match(alice.getId());
+
+        assertEquals(first.ticketId(), second.ticketId());
+        assertEquals(MatchStatus.WAITING, second.status());
+    }
+
+    @Test
+    void match_whenGameCannotBeCreated_shouldPutOpponentBackInTheQueue() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        var carol = playerService.createPlayer("Carol", "carol@test.com");
+        var failures = new AtomicInteger(1);
+        gameService.addListener(new GameService.GameListener() {
+            @Override
+            public void gameCreated(Game game) {
+                if (failures.getAndDecrement() > 0)
+                    throw new IllegalStateException("Journal unavailable");
+            }
+
+            @Override
+            public void gameChanged(Game game, GameService.Change change) {
+            }
+
+            @Override
+            public void gameDeleted(String gameId) {
+            }
+        });
+        var waiting = matchmaker.match(alice.getId());
+
+        assertThrows(IllegalStateException.class, () -> matchmaker.match(bob.getId()));
+        assertEquals(MatchStatus.WAITING, matchmaker.findTicket(waiting.ticketId()).orElseThrow().status());
+        var matched = matchmaker.match(carol.getId());
+        assertEquals(MatchStatus.MATCHED, matched.status());
+        assertEquals(matched.gameId(), matchmaker.findTicket(waiting.ticketId()).orElseThrow().gameId());
+    }
+
+    @Test
+    void cancel_shouldWithdrawWaitingTicket() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        var ticket = matchmaker.match(alice.getId());
+
+        assertEquals(MatchStatus.CANCELLED, matchmaker.cancel(ticket.ticketId()).orElseThrow().status());
+        assertEquals(MatchStatus.WAITING, matchmaker.match(bob.getId()).status());
+        assertTrue(matchmaker.cancel("unknown").isEmpty());
+    }
+
+    @Test
+    void sweep_shouldExpireUnclaimedTickets() {
+        ReflectionTestUtils.setField(matchmaker, "ticketTtlMs", 0L);
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var ticket = matchmaker.match(alice.getId());
+
+        matchmaker.sweep();
+        assertEquals(MatchStatus.EXPIRED, matchmaker.findTicket(ticket.ticketId()).orElseThrow().status());
+        matchmaker.sweep();
+        assertTrue(matchmaker.findTicket(ticket.ticketId()).isEmpty());
+    }
+
+    @Test
+    void match_withSkillBuckets_shouldOnlyPairSimilarWinRates() {
+        ReflectionTestUtils.setField(matchmaker, "skillBuckets", 2);
+        matchmaker.start();
+        matchmaker.stop();
+        var winner = playerService.createPlayer("Winner", "winner@test.com");
+        winner.getStats().incrementGamesPlayed();
+        winner.getStats().incrementGamesWon();
+        var newcomer = playerService.createPlayer("New", "new@test.com");
+        var other = playerService.createPlayer("Other", "other@test.com");
+
+        assertEquals(MatchStatus.WAITING, matchmaker.match(winner.getId()).status());
+        assertEquals(MatchStatus.WAITING, matchmaker.match(newcomer.getId()).status());
+        var matched = matchmaker.match(other.getId());
+        assertEquals(List.of(newcomer, other), gameService.findById(matched.gameId()).orElseThrow().getPlayers());
+    }
+
+    @Test
+    void match_unknownPlayer_shouldThrow() {
+        assertThrows(PlayerNotFoundException.class, () -> matchmaker.match("nonexistent"));
+    }
+
+    @Test
+    void concurrentMatches_shouldPairEveryPlayerExactlyOnce() throws Exception {
+        var players = 200;
+        var ids = new ArrayList<String>();
+        for (var i = 0; i < players; i++)
+            ids.add(playerService.createPlayer("P" + i, "p" + i + "@test.com").getId());
+        var start = new CountDownLatch(1);
+        var tasks = new ArrayList<Callable<Void>>();
+        for (var id : ids) {
+            tasks.add(() -> {
+                start.await();
+                matchmaker.match(id);
+                return null;
+            });
+        }
+        var executor = Executors.newFixedThreadPool(16);
+        try {
+            var futures = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+            for (var future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        var games = gameService.findAll();
+        assertEquals(players / 2, games.size());
+        var seen = new HashSet<String>();
+        for (var game : games) {
+            assertEquals(Game.GameStatus.ACTIVE, game.getStatus());
+            for (var player : game.getPlayers())
+                assertTrue(seen.add(player.getId()));
+        }
+        assertEquals(players, seen.size());
+    }
+}
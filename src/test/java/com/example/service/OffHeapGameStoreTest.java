@@ -0,0 +1,215 @@
+package com.example.service;
+
+import com.example.model.Game;
+import com.example.model.GameState;
+import com.example.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapGameStoreTest {
+
+    private PlayerService playerService;
+    private OffHeapGameStore store;
+    private GameService gameService;
+    private Player alice;
+    private Player bob;
+
+    @BeforeEach
+    void setUp() {
+        playerService = new PlayerService();
+        alice = playerService.createPlayer("Alice", "alice@test.com");
+        bob = playerService.createPlayer("Bob", "bob@test.com");
+        store = new OffHeapGameStore(playerService);
+        gameService = new GameService(playerService, null, store);
+    }
+
+    @Test
+    void gameService_shouldPlayWholeGamesOnTheStore() {
+        var game = gameService.createGame("Off heap");
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        for (var col = 0; col < 2; col++) {
+            gameService.makeMove(game.getId(), alice.getId(), 0, col);
+            gameService.makeMove(game.getId(), bob.getId(), 1, col);
+        }
+        var last = gameService.makeMove(game.getId(), alice.getId(), 0, 2);
+
+        var stored = gameService.findById(game.getId()).orElseThrow();
+        assertEquals("Off heap", stored.getName());
+        assertEquals(game.getCreatedAt(), stored.getCreatedAt());
+        assertEquals(last.getUpdatedAtMillis(), stored.getUpdatedAtMillis());
+        assertEquals(List.of(alice, bob), stored.getPlayers());
+        assertEquals(last.getBoard(), stored.getBoard());
+        assertEquals(Game.GameStatus.COMPLETED, stored.getStatus());
+        assertEquals(alice, stored.getWinner());
+        assertEquals(7, stored.getVersion());
+        assertEquals(1, alice.getStats().getGamesWon());
+        assertEquals(1, gameService.getGameStats().completedGames());
+    }
+
+    @Test
+    void gameService_shouldWorkOnTheLatestStateOfEachGame() {
+        var game = gameService.createGame(null);
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        gameService.makeMove(game.getId(), alice.getId(), 1, 1);
+
+        // Each call reads the game afresh rather than through an earlier copy
+        assertThrows(GameService.InvalidMoveException.class,
+                () -> gameService.makeMove(game.getId(), alice.getId(), 0, 0));
+        assertEquals(bob, gameService.findById(game.getId()).orElseThrow().getCurrentPlayer());
+        assertNull(gameService.findById(game.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void remove_shouldFreeTheSlotForReuse() {
+        var first = new Game("A name well past the forty bytes that fit in a record");
+        store.put(first);
+        var capacity = store.capacityBytes();
+        assertEquals(first.getName(), store.get(first.getId()).getName());
+
+        assertEquals(first.getName(), store.remove(first.getId()).getName());
+        assertNull(store.get(first.getId()));
+        assertFalse(store.contains(first.getId()));
+        var second = new Game("Short");
+        store.put(second);
+
+        assertEquals("Short", store.get(second.getId()).getName());
+        assertEquals(List.of(second.getId()), store.values().map(Game::getId).toList());
+        assertEquals(capacity, store.capacityBytes());
+    }
+
+    @Test
+    void state_shouldMatchTheGameWithoutBuildingIt() {
+        var game = gameService.createGame("Compact");
+        assertEquals(GameState.of(store.get(game.getId())), store.state(game.getId()));
+        gameService.joinGame(game.getId(), alice.getId());
+        assertEquals(GameState.of(store.get(game.getId())), store.state(game.getId()));
+        gameService.joinGame(game.getId(), bob.getId());
+        int[] cells = {4, 0, 2, 6, 3, 5, 1, 7, 8};
+        for (var i = 0; i < cells.length; i++) {
+            gameService.makeMove(game.getId(), (i % 2 == 0 ? alice : bob).getId(), cells[i] / 3, cells[i] % 3);
+            assertEquals(GameState.of(store.get(game.getId())), store.state(game.getId()));
+        }
+        assertEquals(Game.GameStatus.DRAW, store.state(game.getId()).status());
+
+        var won = gameService.createMatch("Won", alice, bob);
+        for (var col = 0; col < 2; col++) {
+            gameService.makeMove(won.getId(), alice.getId(), 0, col);
+            gameService.makeMove(won.getId(), bob.getId(), 1, col);
+        }
+        gameService.makeMove(won.getId(), alice.getId(), 0, 2);
+        assertEquals(GameState.of(store.get(won.getId())), store.state(won.getId()));
+        assertEquals(alice.getId(), gameService.findState(won.getId()).orElseThrow().winnerId());
+        assertNull(store.state(new Game("Elsewhere").getId()));
+    }
+
+    @Test
+    void indexes_shouldFollowCreationOrderAcrossSlotReuseAndRestores() {
+        var start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        var restored = new ArrayList<Game>();
+        for (int i = 0; i < 300; i++)
+            restored.add(new Game(UUID.randomUUID().toString(), "Game " + i, start.plusSeconds(i)));
+        // Restored out of order, as a parallel snapshot load does
+        for (int i = restored.size() - 1; i >= 0; i--)
+            gameService.restore(restored.get(i));
+        gameService.joinGame(restored.get(1).getId(), alice.getId());
+        gameService.joinGame(restored.get(1).getId(), bob.getId());
+        gameService.deleteGame(restored.get(0).getId());
+        // Takes the freed slot, and goes last all the same
+        var newest = gameService.createGame("Newest");
+
+        var expected = new ArrayList<String>();
+        for (var game : restored.subList(1, restored.size()))
+            expected.add(game.getId());
+        expected.add(newest.getId());
+        assertEquals(expected, store.ids().toList());
+
+        var paged = new ArrayList<String>();
+        String cursor = null;
+        do {
+            var page = store.page(70, cursor);
+            paged.addAll(page.ids());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(expected, paged);
+        assertThrows(IllegalArgumentException.class, () -> store.page(10, "bogus"));
+
+        var waiting = new HashSet<>(expected);
+        waiting.remove(restored.get(1).getId());
+        assertEquals(waiting, new HashSet<>(store.waitingIds().toList()));
+        assertEquals(waiting.size(), gameService.findWaitingGames().size());
+    }
+
+    @Test
+    void finishedIds_shouldListFinishedGamesInTheOrderTheyFinished() {
+        store = new OffHeapGameStore(playerService, true);
+        gameService = new GameService(playerService, null, store);
+        var first = gameService.createMatch("First", alice, bob);
+        var second = gameService.createMatch("Second", alice, bob);
+        var third = gameService.createMatch("Third", alice, bob);
+        for (var game : List.of(second, first, third)) {
+            for (var col = 0; col < 2; col++) {
+                gameService.makeMove(game.getId(), alice.getId(), 0, col);
+                gameService.makeMove(game.getId(), bob.getId(), 1, col);
+            }
+            gameService.makeMove(game.getId(), alice.getId(), 0, 2);
+        }
+        gameService.deleteGame(first.getId());
+
+        assertEquals(List.of(second.getId(), third.getId()), store.finishedIds().toList());
+        assertEquals(List.of(), new OffHeapGameStore(playerService).finishedIds().toList());
+    }
+
+    @Test
+    void put_shouldRejectIdsThatAreNotUuids() {
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(new Game("not-a-uuid", "Odd", LocalDateTime.now())));
+        assertNull(store.get("not-a-uuid"));
+    }
+
+    @Test
+    void get_shouldOnlySeeGamesBetweenTwoChanges() throws Exception {
+        var game = gameService.createGame("Racing");
+        gameService.joinGame(game.getId(), alice.getId());
+        gameService.joinGame(game.getId(), bob.getId());
+        int[] cells = {0, 4, 1, 2, 6, 3, 5, 7, 8};
+        var readers = Executors.newFixedThreadPool(4);
+        var results = new ArrayList<Future<?>>();
+        for (int r = 0; r < 4; r++) {
+            results.add(readers.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    var seen = store.get(game.getId());
+                    assertEquals(List.of(alice, bob), seen.getPlayers());
+                    // Exactly the first moves played, never a mix of two versions
+                    for (int move = 0; move < cells.length; move++)
+                        assertEquals(move < seen.getMoveCount(), seen.isOccupied(cells[move]));
+                    assertEquals(2 + seen.getMoveCount(), seen.getVersion());
+                }
+                return null;
+            }));
+        }
+        for (var i = 0; i < cells.length; i++)
+            gameService.makeMove(game.getId(), (i % 2 == 0 ? alice : bob).getId(), cells[i] / 3, cells[i] % 3);
+        readers.shutdown();
+        for (var result : results)
+            result.get(30, TimeUnit.SECONDS);
+
+        assertEquals(Game.GameStatus.DRAW, store.get(game.getId()).getStatus());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.service;
+
+import com.example.model.PlayerStats;
+import com.example.service.PlayerImporter.PlayerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayerImporterTest {
+
+    private PlayerService playerService;
+    private PlayerImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        playerService = new PlayerService();
+        importer = new PlayerImporter(playerService, new PlayerWriteBehind(playerService, null));
+        ReflectionTestUtils.setField(importer, "chunkSize", 100);
+        ReflectionTestUtils.setField(importer, "threads", 4);
+        importer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importer.stop();
+    }
+
+    @Test
+    void importAll_shouldInsertEveryValidRecordAcrossChunks() throws InterruptedException {
+        var records = LongStream.rangeClosed(1, 10_000)
+                .mapToObj(line -> PlayerRecord.of(line, "Player " + line, "player" + line + "@test.com"))
+                .iterator();
+
+        var result = importer.importAll(records);
+
+        assertEquals(10_000, result.imported());
+        assertEquals(0, result.invalid() + result.duplicates());
+        assertEquals(10_000, playerService.getTotalPlayerCount());
+        assertEquals("Player 4321", playerService.findByEmail("player4321@test.com").orElseThrow().getName());
+    }
+
+    @Test
+    void importAll_shouldRejectInvalidAndDuplicateEmails() throws InterruptedException {
+        playerService.createPlayer("Existing", "taken@test.com");
+        var records = List.of(
+                PlayerRecord.of(1, "Alice", "alice@test.com"),
+                PlayerRecord.of(2, "Again", "alice@test.com"),
+                PlayerRecord.of(3, "Taken", "taken@test.com"),
+                PlayerRecord.of(4, "Bad", "not-an-email"),
+                PlayerRecord.of(5, " ", "blank@test.com"),
+                PlayerRecord.unreadable(6, "Malformed JSON"));
+
+        var result = importer.importAll(records.iterator());
+
+        assertEquals(1, result.imported());
+        assertEquals(2, result.duplicates());
+        assertEquals(3, result.invalid());
+        assertEquals(5, result.errors().size());
+        assertTrue(result.errors().contains("Line 6: Malformed JSON"));
+        assertTrue(result.errors().contains("Line 3: Email already taken: taken@test.com"));
+        assertEquals(2, playerService.getTotalPlayerCount());
+    }
+
+    @Test
+    void importAll_shouldRejectInconsistentStats() throws InterruptedException {
+        var records = List.of(
+                exported(1, "kept@test.com", 5, 2, 1, 2),
+                exported(2, "negative@test.com", 1, -1, 1, 1),
+                exported(3, "unbalanced@test.com", 5, 2, 1, 1),
+                exported(4, "overwon@test.com", 1, 3, 0, 0));
+
+        var result = importer.importAll(records.iterator());
+
+        assertEquals(1, result.imported());
+        assertEquals(3, result.invalid());
+        assertTrue(result.errors().contains("Line 2: Stats must not be negative"));
+        assertTrue(result.errors().contains("Line 3: Games won, lost and drawn must add up to games played"));
+        assertTrue(result.errors().contains("Line 4: Games won must not exceed games played"));
+        assertEquals(2, playerService.findByEmail("kept@test.com").orElseThrow().getStats().getGamesWon());
+    }
+
+    private static PlayerRecord exported(long line, String email, int played, int won, int lost, int drawn) {
+        var stats = new PlayerStats();
+        stats.setGamesPlayed(played);
+        stats.setGamesWon(won);
+        stats.setGamesLost(lost);
+        stats.setGamesDrawn(drawn);
+        return PlayerRecord.of(line, UUID.randomUUID().toString(), "Player " + line, email, LocalDateTime.now(), stats);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.service;
+
+import com.example.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PlayerService} operations against a pre-populated player map.
+ * Run with: mvn -Pbenchmark test -Djmh.args="PlayerServiceBenchmark -p playerCount=1000,100000"
+ * (the 1M population takes a while to build, hence the larger heap)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PlayerServiceBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int playerCount;
+
+    private PlayerService playerService;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        playerService = new PlayerService();
+        var random = new Random(42);
+        for (int i = 0; i < playerCount; i++) {
+            var player = playerService.createPlayer("Player " + i, "player" + i + "@bench.com");
+            var games = random.nextInt(20);
+            for (int g = 0; g < games; g++)
+                playerService.updatePlayerStats(player.getId(), random.nextBoolean(), false, 3 + random.nextInt(3));
+        }
+    }
+
+    /** Register and remove a fresh player, keeping the population at playerCount. */
+    @Benchmark
+    public Player registerPlayer() {
+        var player = playerService.createPlayer("New Player", "new" + sequence++ + "@bench.com");
+        playerService.deletePlayer(player.getId());
+        return player;
+    }
+
+    @Benchmark
+    public List<Player> getLeaderboard() {
+        return playerService.getLeaderboard(10);
+    }
+
+    @Benchmark
+    public List<Player> getMostActivePlayers() {
+        return playerService.getMostActivePlayers(10);
+    }
+
+    @Benchmark
+    public List<Player> searchByName() {
+        return playerService.searchByName("layer " + (sequence++ % playerCount));
+    }
+
+    @Benchmark
+    public Player findByEmail() {
+        return playerService.findByEmail("player" + (sequence++ % playerCount) + "@bench.com").orElseThrow();
+    }
+}
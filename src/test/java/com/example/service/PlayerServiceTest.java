@@ -3,9 +3,20 @@ package com.example.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PlayerServiceTest {
@@ -65,4 +76,160 @@ class PlayerServiceTest {
         assertEquals("Alice", leaderboard.get(0).getName());
         assertEquals("Bob", leaderboard.get(1).getName());
     }
+
+    @Test
+    void createPlayer_duplicateEmail_shouldThrow() {
+        playerService.createPlayer("Alice", "alice@test.com");
+        assertThrows(IllegalArgumentException.class, () -> playerService.createPlayer("Other", "alice@test.com"));
+        assertEquals(1, playerService.getTotalPlayerCount());
+    }
+
+    @Test
+    void createPlayer_reservedEmailDomain_shouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> playerService.createPlayer("Fake", "perfect" + PlayerService.RESERVED_EMAIL_DOMAIN));
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        assertThrows(IllegalArgumentException.class,
+                () -> playerService.updatePlayer(alice.getId(), "Alice", "alice@COMPUTER.invalid"));
+    }
+
+    @Test
+    void reservePlayer_shouldNotBeDeletedChangedOrRanked() {
+        var computer = playerService.reservePlayer("Computer", "perfect" + PlayerService.RESERVED_EMAIL_DOMAIN);
+        computer.getStats().incrementGamesPlayed();
+        computer.getStats().incrementGamesWon();
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        alice.getStats().incrementGamesPlayed();
+
+        assertThrows(PlayerService.ReservedPlayerException.class, () -> playerService.deletePlayer(computer.getId()));
+        assertThrows(PlayerService.ReservedPlayerException.class,
+                () -> playerService.updatePlayer(computer.getId(), "Human", "human@test.com"));
+        assertEquals(List.of(alice), playerService.getLeaderboard(10));
+        assertEquals(List.of(alice), playerService.getMostActivePlayers(10));
+        assertTrue(playerService.getMostEfficientPlayers(10).isEmpty());
+        // Found again, as after a restart, rather than registered twice
+        assertEquals(computer, playerService.reservePlayer("Computer", computer.getEmail()));
+    }
+
+    @Test
+    void createPlayer_concurrentSameEmail_onlyOneSucceeds() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 100; round++) {
+                var email = "race" + round + "@test.com";
+                var created = new AtomicInteger();
+                var start = new CountDownLatch(1);
+                var futures = new ArrayList<Future<?>>();
+                for (int t = 0; t < 8; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            playerService.createPlayer("Racer", email);
+                            created.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            // lost the race
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (var future : futures)
+                    future.get();
+                assertEquals(1, created.get());
+            }
+            assertEquals(100, playerService.getTotalPlayerCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updatePlayer_changedEmail_shouldMoveIndexEntry() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+
+        playerService.updatePlayer(alice.getId(), "Alice", "alice@new.com");
+        assertEquals(alice.getId(), playerService.findByEmail("alice@new.com").orElseThrow().getId());
+        assertFalse(playerService.findByEmail("alice@test.com").isPresent());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> playerService.updatePlayer(bob.getId(), "Bob", "alice@new.com"));
+        assertEquals("bob@test.com", bob.getEmail());
+
+        // The freed address can be reused
+        playerService.createPlayer("Carol", "alice@test.com");
+    }
+
+    @Test
+    void deletePlayer_shouldFreeEmail() {
+        var player = playerService.createPlayer("Test", "test@test.com");
+        playerService.deletePlayer(player.getId());
+        assertFalse(playerService.findByEmail("test@test.com").isPresent());
+        assertNotNull(playerService.createPlayer("Again", "test@test.com"));
+    }
+
+    @Test
+    void rankings_shouldFollowStatsChangesAndDeletes() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        var bob = playerService.createPlayer("Bob", "bob@test.com");
+        playerService.updatePlayerStats(alice.getId(), true, false, 3);
+        playerService.updatePlayerStats(bob.getId(), false, false, 4);
+        assertEquals("Alice", playerService.getLeaderboard(10).get(0).getName());
+
+        // Bob overtakes once his win rate passes Alice's
+        playerService.updatePlayerStats(alice.getId(), false, false, 5);
+        playerService.updatePlayerStats(bob.getId(), true, false, 3);
+        playerService.updatePlayerStats(bob.getId(), true, false, 3);
+        assertEquals("Bob", playerService.getLeaderboard(10).get(0).getName());
+        assertEquals("Bob", playerService.getMostActivePlayers(1).get(0).getName());
+
+        playerService.deletePlayer(bob.getId());
+        assertEquals(1, playerService.getLeaderboard(10).size());
+        assertEquals("Alice", playerService.getMostActivePlayers(10).get(0).getName());
+        assertEquals(1, playerService.getMostEfficientPlayers(10).size());
+    }
+
+    @Test
+    void searchByName_shouldFollowUpdatesAndDeletes() {
+        var alice = playerService.createPlayer("Alice Cooper", "alice@test.com");
+        playerService.createPlayer("Bob Cooper", "bob@test.com");
+        assertEquals(2, playerService.searchByName("COOP").size());
+        assertEquals(2, playerService.searchByName("o").size());
+
+        playerService.updatePlayer(alice.getId(), "Alice Smith", "alice@test.com");
+        assertEquals(1, playerService.searchByName("cooper").size());
+        assertEquals(1, playerService.searchByName("alice s", true, 10, null).players().size());
+        assertTrue(playerService.searchByName("smith", true, 10, null).players().isEmpty());
+
+        playerService.deletePlayer(alice.getId());
+        assertTrue(playerService.searchByName("alice").isEmpty());
+    }
+
+    @Test
+    void getPlayersCreatedBetween_shouldSeekTimeRangeInCreationOrder() throws Exception {
+        var early = playerService.createPlayer("Early", "early@test.com");
+        Thread.sleep(5);
+        var from = LocalDateTime.now();
+        var first = playerService.createPlayer("First", "first@test.com");
+        Thread.sleep(1);
+        var second = playerService.createPlayer("Second", "second@test.com");
+        Thread.sleep(1);
+        var third = playerService.createPlayer("Third", "third@test.com");
+        Thread.sleep(5);
+        var to = LocalDateTime.now();
+        playerService.createPlayer("Late", "late@test.com");
+
+        var legacy = playerService.getPlayersCreatedBetween(Timestamp.valueOf(from), Timestamp.valueOf(to));
+        assertEquals(List.of(first, second, third), legacy);
+
+        var page = playerService.getPlayersCreatedBetween(from, to, 2, null);
+        assertEquals(List.of(first, second), page.players());
+        var next = playerService.getPlayersCreatedBetween(from, to, 2, page.nextCursor());
+        assertEquals(List.of(third), next.players());
+        assertNull(next.nextCursor());
+
+        assertEquals(List.of(early), playerService.getPlayersCreatedBetween(null, from, 10, null).players());
+        playerService.deletePlayer(second.getId());
+        assertEquals(List.of(first, third), playerService.getPlayersCreatedBetween(from, to, 10, null).players());
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.service;
+
+import com.example.model.Player;
+import com.example.repository.PlayerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlayerWriteBehindTest {
+
+    private PlayerService playerService;
+    private PlayerRepository repository;
+    private PlayerWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        playerService = new PlayerService();
+        repository = mock(PlayerRepository.class);
+        when(repository.findAll()).thenReturn(List.of());
+        writeBehind = new PlayerWriteBehind(playerService, repository);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 2);
+        // No flusher thread: the tests call flush() themselves
+        writeBehind.restore();
+    }
+
+    @Test
+    void restore_shouldLoadPersistedPlayersWithoutRewritingThem() {
+        var saved = new Player("Saved", "saved@test.com");
+        saved.getStats().incrementGamesPlayed();
+        saved.getStats().incrementGamesWon();
+        var service = new PlayerService();
+        var repo = mock(PlayerRepository.class);
+        when(repo.findAll()).thenReturn(List.of(saved));
+        var restoring = new PlayerWriteBehind(service, repo);
+        restoring.restore();
+
+        assertEquals(saved, service.findByEmail("saved@test.com").orElseThrow());
+        assertEquals(List.of(saved), service.getLeaderboard(10));
+        assertEquals(0, restoring.pendingCount());
+    }
+
+    @Test
+    void changesToOnePlayer_shouldCoalesceIntoOneWrite() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        alice.getStats().incrementGamesPlayed();
+        alice.getStats().addMoves(3);
+        playerService.updatePlayer(alice.getId(), "Alicia", "alice@test.com");
+        assertEquals(1, writeBehind.pendingCount());
+
+        writeBehind.flush();
+
+        var written = captureUpserts(1);
+        assertEquals(List.of(alice), written);
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    void flush_shouldWriteInBatchesAndDeleteRemovedPlayers() {
+        for (int i = 0; i < 3; i++)
+            playerService.createPlayer("P" + i, "p" + i + "@test.com");
+        var created = playerService.createPlayer("Gone", "gone@test.com");
+        writeBehind.flush();
+        var written = captureUpserts(2);
+        assertEquals(4, written.size());
+        assertTrue(written.contains(created));
+        reset(repository);
+
+        playerService.deletePlayer(created.getId());
+        writeBehind.flush();
+
+        verify(repository).deleteAllByIdInBatch(List.of(created.getId()));
+        verify(repository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void failedFlush_shouldKeepPlayersPending() {
+        var alice = playerService.createPlayer("Alice", "alice@test.com");
+        doThrow(new IllegalStateException("database down")).when(repository).upsertAll(anyList());
+
+        writeBehind.flush();
+
+        assertEquals(1, writeBehind.failedFlushCount());
+        assertEquals(1, writeBehind.pendingCount());
+        reset(repository);
+        writeBehind.flush();
+        assertEquals(List.of(alice), captureUpserts(1));
+    }
+
+    @Test
+    void fullBacklog_shouldNotBlockChangesButReportNoRoom() {
+        ReflectionTestUtils.setField(writeBehind, "maxPending", 2);
+        for (int i = 0; i < 5; i++)
+            playerService.createPlayer("P" + i, "p" + i + "@test.com").getStats().incrementGamesPlayed();
+
+        assertEquals(5, writeBehind.pendingCount());
+        assertFalse(writeBehind.hasRoom());
+        writeBehind.flush();
+        assertTrue(writeBehind.hasRoom());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Player> captureUpserts(int calls) {
+        ArgumentCaptor<List<Player>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(calls)).upsertAll(captor.capture());
+        var written = new ArrayList<Player>();
+        captor.getAllValues().forEach(written::addAll);
+        assertTrue(written.size() >= calls);
+        return written;
+    }
+}